@@ -0,0 +1,69 @@
+package wolox.training.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.test.util.ReflectionTestUtils;
+import wolox.training.clients.OpenLibraryBookParser;
+import wolox.training.dto.OpenLibraryBook;
+
+/**
+ * Streaming parse of an OpenLibrary response into {@link OpenLibraryBook}s, the path behind
+ * {@code buildLibraryBookDto}. The body carries the fields the parser has to skip as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OpenLibraryBookParserBenchmark {
+
+    @Param({"1", "20", "100"})
+    public int books;
+
+    private OpenLibraryBookParser parser;
+
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        parser = new OpenLibraryBookParser();
+        ReflectionTestUtils.setField(parser, "objectMapper", new ObjectMapper());
+        parser.init();
+        StringBuilder json = new StringBuilder("{");
+        for (int i = 0; i < books; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("\"ISBN:978000000").append(String.format("%04d", i)).append("\": {")
+                .append("\"url\": \"https://openlibrary.org/books/OL").append(i).append("M\",")
+                .append("\"publishers\": [{\"name\": \"Anchor Books\"}, {\"name\": \"Other\"}],")
+                .append("\"identifiers\": {\"isbn_10\": [\"0385472579\"],")
+                .append(" \"openlibrary\": [\"OL").append(i).append("M\"]},")
+                .append("\"subjects\": [{\"name\": \"Zen Buddhism\", \"url\": \"https://o.org/s\"},")
+                .append(" {\"name\": \"Caricatures and cartoons\", \"url\": \"https://o.org/c\"}],")
+                .append("\"title\": \"Zen speaks ").append(i).append("\",")
+                .append("\"subtitle\": \"shouts of nothingness\",")
+                .append("\"authors\": [{\"url\": \"https://openlibrary.org/a\",")
+                .append(" \"name\": \"Zhizhong Cai\"}],")
+                .append("\"publish_date\": \"1994\", \"number_of_pages\": 159,")
+                .append("\"cover\": {\"small\": \"s.jpg\", \"medium\": \"m.jpg\",")
+                .append(" \"large\": \"l.jpg\"}}");
+        }
+        body = json.append('}').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Map<String, OpenLibraryBook> parseBooks() throws IOException {
+        return parser.parseBooks(new ByteArrayInputStream(body));
+    }
+}
@@ -0,0 +1,118 @@
+package wolox.training.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import wolox.training.dto.BookSummary;
+import wolox.training.dto.UserSummary;
+import wolox.training.models.Book;
+import wolox.training.models.User;
+
+/**
+ * Jackson rendering of a page of books and users, both as entities and as the summaries the
+ * list endpoints return.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PageSerializationBenchmark {
+
+    private static final int BOOKS_PER_USER = 5;
+    private static final Instant LAST_MODIFIED = Instant.parse("2020-05-01T10:00:00Z");
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+
+    private Page<Book> books;
+
+    private Page<BookSummary> bookSummaries;
+
+    private Page<User> users;
+
+    private Page<UserSummary> userSummaries;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<Book> bookList = new ArrayList<>();
+        List<BookSummary> bookSummaryList = new ArrayList<>();
+        for (long id = 1; id <= pageSize; id++) {
+            Book book = book(id);
+            bookList.add(book);
+            bookSummaryList.add(summary(book));
+        }
+        List<User> userList = new ArrayList<>();
+        List<UserSummary> userSummaryList = new ArrayList<>();
+        for (long id = 1; id <= pageSize; id++) {
+            User user = new User(id, "reader" + id, "Reader " + id, LocalDate.parse("1990-01-01"));
+            user.setLastModified(LAST_MODIFIED);
+            UserSummary userSummary = new UserSummary(user.getId(), user.getUserName(),
+                user.getName(), user.getBirthDate(), user.getVersion(), user.getLastModified());
+            List<BookSummary> owned = new ArrayList<>();
+            for (long i = 1; i <= BOOKS_PER_USER; i++) {
+                Book book = book(id * BOOKS_PER_USER + i);
+                user.addBook(book);
+                owned.add(summary(book));
+            }
+            userSummary.setBooks(owned);
+            userList.add(user);
+            userSummaryList.add(userSummary);
+        }
+        PageRequest pageable = PageRequest.of(0, pageSize);
+        books = new PageImpl<>(bookList, pageable, pageSize * 10L);
+        bookSummaries = new PageImpl<>(bookSummaryList, pageable, pageSize * 10L);
+        users = new PageImpl<>(userList, pageable, pageSize * 10L);
+        userSummaries = new PageImpl<>(userSummaryList, pageable, pageSize * 10L);
+    }
+
+    @Benchmark
+    public byte[] bookEntities() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(books);
+    }
+
+    @Benchmark
+    public byte[] bookSummaries() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(bookSummaries);
+    }
+
+    @Benchmark
+    public byte[] userEntities() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public byte[] userSummaries() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(userSummaries);
+    }
+
+    private static Book book(long id) {
+        Book book = new Book(id, "Title " + id, "Author " + id, "Genre", "image.jpg",
+            "Subtitle", "2000", "Publisher", "isbn-" + id, 100);
+        book.setLastModified(LAST_MODIFIED);
+        return book;
+    }
+
+    private static BookSummary summary(Book book) {
+        return new BookSummary(book.getId(), book.getGenre(), book.getAuthor(), book.getImage(),
+            book.getTitle(), book.getSubtitle(), book.getPublisher(), book.getYear(),
+            book.getPages(), book.getIsbn(), book.getVersion(), book.getLastModified());
+    }
+}
@@ -0,0 +1,77 @@
+package wolox.training.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import wolox.training.config.PasswordEncoderConfig;
+import wolox.training.services.PasswordEncoderService;
+
+/**
+ * Cost of one login check for each supported hash, with the work factors from
+ * application.properties.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PasswordEncoderBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({PasswordEncoderConfig.BCRYPT, PasswordEncoderConfig.PBKDF2,
+        PasswordEncoderConfig.ARGON2})
+    public String algorithm;
+
+    private ThreadPoolTaskExecutor executor;
+
+    private PasswordEncoderService passwordEncoderService;
+
+    private String encodedPassword;
+
+    @Setup
+    public void setUp() throws IOException {
+        Properties properties = PropertiesLoaderUtils.loadProperties(
+            new ClassPathResource("application.properties"));
+        int bcryptStrength = Integer.parseInt(
+            properties.getProperty("security.password.bcryptStrength"));
+        int pbkdf2Iterations = Integer.parseInt(
+            properties.getProperty("security.password.pbkdf2Iterations"));
+        PasswordEncoderConfig config = new PasswordEncoderConfig();
+        ReflectionTestUtils.setField(config, "algorithm", algorithm);
+        ReflectionTestUtils.setField(config, "bcryptStrength", bcryptStrength);
+        ReflectionTestUtils.setField(config, "pbkdf2Iterations", pbkdf2Iterations);
+        executor = new ThreadPoolTaskExecutor();
+        executor.initialize();
+        passwordEncoderService = new PasswordEncoderService();
+        ReflectionTestUtils.setField(passwordEncoderService, "passwordEncoder",
+            config.passwordEncoder());
+        ReflectionTestUtils.setField(passwordEncoderService, "passwordHashingExecutor", executor);
+        ReflectionTestUtils.setField(passwordEncoderService, "meterRegistry",
+            new SimpleMeterRegistry());
+        passwordEncoderService.init();
+        encodedPassword = passwordEncoderService.encode(PASSWORD);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return passwordEncoderService.matches(PASSWORD, encodedPassword);
+    }
+}
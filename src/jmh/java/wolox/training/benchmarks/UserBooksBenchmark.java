@@ -0,0 +1,64 @@
+package wolox.training.benchmarks;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import wolox.training.models.Book;
+import wolox.training.models.User;
+
+/**
+ * Ownership checks against a user that already holds {@code ownedBooks} books. Adding a book
+ * is undone in the same invocation so the collection size stays fixed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UserBooksBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int ownedBooks;
+
+    private User user;
+
+    private Book owned;
+
+    private Book other;
+
+    @Setup
+    public void setUp() {
+        user = new User(1L, "collector", "Collector", LocalDate.parse("1990-01-01"));
+        for (long id = 1; id <= ownedBooks; id++) {
+            user.addBook(book(id));
+        }
+        owned = book(ownedBooks / 2 + 1);
+        other = book(ownedBooks + 1);
+    }
+
+    @Benchmark
+    public boolean containsOwnedBook() {
+        return user.getBooks().contains(owned);
+    }
+
+    @Benchmark
+    public boolean containsOtherBook() {
+        return user.getBooks().contains(other);
+    }
+
+    @Benchmark
+    public void addAndDeleteBook() {
+        user.addBook(other);
+        user.deleteBook(other);
+    }
+
+    private static Book book(long id) {
+        return new Book(id, "Title " + id, "Author", "Genre", "image.jpg", "Subtitle", "2000",
+            "Publisher", "isbn-" + id, 100);
+    }
+}
@@ -0,0 +1,55 @@
+package wolox.training.load;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latency histograms and error counts per endpoint, in microseconds.
+ */
+class LatencyReport {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<String, Histogram> latencies = new ConcurrentSkipListMap<>();
+
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long startNanos, boolean success) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        latencies.computeIfAbsent(endpoint, key -> new ConcurrentHistogram(SIGNIFICANT_DIGITS))
+            .recordValue(micros);
+        if (!success) {
+            errors.computeIfAbsent(endpoint, key -> new LongAdder()).increment();
+        }
+    }
+
+    long samples(String endpoint) {
+        Histogram histogram = latencies.get(endpoint);
+        return histogram == null ? 0 : histogram.getTotalCount();
+    }
+
+    long errors() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    String format(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        StringBuilder report = new StringBuilder(String.format("%-32s %9s %9s %9s %9s %9s %7s%n",
+            "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "errors"));
+        latencies.forEach((endpoint, histogram) -> report.append(String.format(
+            "%-32s %9d %9.1f %9.2f %9.2f %9.2f %7d%n", endpoint, histogram.getTotalCount(),
+            histogram.getTotalCount() / seconds, millis(histogram, 50),
+            millis(histogram, 99), millis(histogram, 99.9),
+            errors.getOrDefault(endpoint, new LongAdder()).sum())));
+        return report.toString();
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,224 @@
+package wolox.training.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.client.RestTemplate;
+import wolox.training.models.Book;
+import wolox.training.models.User;
+import wolox.training.repositories.BookRepository;
+import wolox.training.services.UserService;
+
+/**
+ * Runs the application on H2 with OpenLibrary served by {@link OpenLibraryStub}, and drives
+ * catalog listings, ISBN lookups, collection changes and user searches from concurrent
+ * clients, one user per client thread. Tuned through {@code loadTest.*} system properties,
+ * e.g. {@code ./gradlew loadTest -DloadTest.threads=16 -DloadTest.isbnMissRatio=0.2}.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa",
+    "spring.datasource.password="
+})
+public class MixedWorkloadLoadTest {
+
+    private static final String PASSWORD = "load-test-password";
+
+    private static final int THREADS = Integer.getInteger("loadTest.threads", 8);
+    private static final int BOOKS = Integer.getInteger("loadTest.books", 1000);
+    private static final int WARMUP_SECONDS = Integer.getInteger("loadTest.warmupSeconds", 10);
+    private static final int DURATION_SECONDS = Integer.getInteger("loadTest.durationSeconds", 30);
+    private static final double ISBN_MISS_RATIO = Double
+        .parseDouble(System.getProperty("loadTest.isbnMissRatio", "0.1"));
+    private static final long OPEN_LIBRARY_DELAY_MS = Long
+        .getLong("loadTest.openLibraryDelayMs", 50);
+
+    private static final int LISTING_WEIGHT = 40;
+    private static final int ISBN_WEIGHT = 30;
+    private static final int COLLECTION_WEIGHT = 20;
+    private static final int PAGE_SIZE = 20;
+
+    private static OpenLibraryStub openLibraryStub;
+
+    private final AtomicLong missingIsbns = new AtomicLong();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserService userService;
+
+    private List<Book> books;
+
+    private List<User> readers;
+
+    @DynamicPropertySource
+    static void openLibrary(DynamicPropertyRegistry registry) throws IOException {
+        openLibraryStub = new OpenLibraryStub(OPEN_LIBRARY_DELAY_MS);
+        openLibraryStub.start();
+        registry.add("openLibrary.baseUrl", openLibraryStub::baseUrl);
+    }
+
+    @AfterClass
+    public static void stopOpenLibrary() {
+        openLibraryStub.stop();
+    }
+
+    @Test
+    public void whenMixedWorkloadRuns_thenNoRequestFails() throws Exception {
+        seed();
+        run(TimeUnit.SECONDS.toNanos(WARMUP_SECONDS), new LatencyReport());
+
+        LatencyReport report = new LatencyReport();
+        long elapsed = run(TimeUnit.SECONDS.toNanos(DURATION_SECONDS), report);
+        System.out.printf("%nMixed workload: %d threads, %d s, ISBN miss ratio %.2f%n%s",
+            THREADS, DURATION_SECONDS, ISBN_MISS_RATIO, report.format(elapsed));
+
+        assertThat(report.errors()).isZero();
+        assertThat(report.samples("GET /api/books")).isPositive();
+        assertThat(report.samples("GET /api/users/search")).isPositive();
+    }
+
+    private void seed() {
+        List<Book> seeded = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            seeded.add(new Book("Title " + i, "Author " + i % 50, "Genre " + i % 10, "image.jpg",
+                "Subtitle " + i, String.valueOf(1950 + i % 70), "Publisher " + i % 20,
+                String.format("978%010d", i), 100 + i % 400));
+        }
+        books = new ArrayList<>();
+        bookRepository.saveAll(seeded).forEach(books::add);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            User user = new User("reader" + i, "Reader " + i, LocalDate.of(1980 + i % 30, 1, 1));
+            user.setPassword(PASSWORD);
+            users.add(user);
+        }
+        readers = new ArrayList<>();
+        userService.createUsers(users).join().forEach(readers::add);
+    }
+
+    private long run(long durationNanos, LatencyReport report) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        long deadline = start + durationNanos;
+        try {
+            List<Future<?>> clients = new ArrayList<>();
+            for (User reader : readers) {
+                RestTemplate client = client(reader);
+                clients.add(executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        request(client, reader, report);
+                    }
+                }));
+            }
+            for (Future<?> client : clients) {
+                client.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private void request(RestTemplate client, User reader, LatencyReport report) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int operation = random.nextInt(100);
+        if (operation < LISTING_WEIGHT) {
+            time(report, "GET /api/books", () -> client.getForEntity(
+                "/api/books?page={page}&size={size}", String.class,
+                random.nextInt(BOOKS / PAGE_SIZE), PAGE_SIZE));
+        } else if (operation < LISTING_WEIGHT + ISBN_WEIGHT) {
+            if (random.nextDouble() < ISBN_MISS_RATIO) {
+                String isbn = String.format("979%010d", missingIsbns.incrementAndGet());
+                time(report, "GET /api/books/isbn (miss)",
+                    () -> client.getForEntity("/api/books/isbn/{isbn}", String.class, isbn));
+            } else {
+                String isbn = books.get(random.nextInt(books.size())).getIsbn();
+                time(report, "GET /api/books/isbn (hit)",
+                    () -> client.getForEntity("/api/books/isbn/{isbn}", String.class, isbn));
+            }
+        } else if (operation < LISTING_WEIGHT + ISBN_WEIGHT + COLLECTION_WEIGHT) {
+            long bookId = books.get(random.nextInt(books.size())).getId();
+            time(report, "POST /api/users/{id}/books", () -> client.exchange(
+                "/api/users/{user}/books/{book}", HttpMethod.POST, null, String.class,
+                reader.getId(), bookId));
+            time(report, "DELETE /api/users/{id}/books", () -> client.exchange(
+                "/api/users/{user}/books/{book}", HttpMethod.DELETE, null, String.class,
+                reader.getId(), bookId));
+        } else {
+            User searched = readers.get(random.nextInt(readers.size()));
+            time(report, "GET /api/users/search", () -> client.getForEntity(
+                "/api/users/search?name={name}", String.class, searched.getName()));
+        }
+    }
+
+    private void time(LatencyReport report, String endpoint, Request request) {
+        long start = System.nanoTime();
+        boolean success;
+        try {
+            success = request.send().getStatusCode().is2xxSuccessful();
+        } catch (RuntimeException e) {
+            success = false;
+        }
+        report.record(endpoint, start, success);
+    }
+
+    private RestTemplate client(User reader) {
+        return new RestTemplateBuilder()
+            .rootUri("http://localhost:" + port)
+            .basicAuthentication(reader.getUserName(), PASSWORD)
+            .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(
+                HttpClients.custom().setMaxConnPerRoute(1).setMaxConnTotal(1).build()))
+            .errorHandler(new IgnoreErrors())
+            .build();
+    }
+
+    @FunctionalInterface
+    private interface Request {
+
+        ResponseEntity<String> send();
+    }
+
+    private static class IgnoreErrors implements ResponseErrorHandler {
+
+        @Override
+        public boolean hasError(ClientHttpResponse response) {
+            return false;
+        }
+
+        @Override
+        public void handleError(ClientHttpResponse response) {
+        }
+    }
+}
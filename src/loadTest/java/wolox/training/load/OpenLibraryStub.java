@@ -0,0 +1,93 @@
+package wolox.training.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local stand-in for the OpenLibrary books API. Every requested ISBN is known, and each
+ * response is delayed by a fixed amount to model the remote round trip.
+ */
+class OpenLibraryStub {
+
+    private static final String BIBKEY_PREFIX = "ISBN:";
+
+    private final HttpServer server;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final long delayMillis;
+
+    OpenLibraryStub(long delayMillis) throws IOException {
+        this.delayMillis = delayMillis;
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/books", this::handle);
+        server.setExecutor(executor);
+    }
+
+    void start() {
+        server.start();
+    }
+
+    void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            Thread.sleep(delayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] body = books(bibkeys(exchange.getRequestURI().getRawQuery()))
+            .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private String[] bibkeys(String query) throws IOException {
+        for (String parameter : query == null ? new String[0] : query.split("&")) {
+            if (parameter.startsWith("bibkeys=")) {
+                return URLDecoder.decode(parameter.substring("bibkeys=".length()),
+                    StandardCharsets.UTF_8.name()).split(",");
+            }
+        }
+        return new String[0];
+    }
+
+    private String books(String[] bibkeys) {
+        StringBuilder json = new StringBuilder("{");
+        for (String bibkey : bibkeys) {
+            if (!bibkey.startsWith(BIBKEY_PREFIX)) {
+                continue;
+            }
+            String isbn = bibkey.substring(BIBKEY_PREFIX.length());
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append('"').append(bibkey).append("\": {")
+                .append("\"title\": \"Imported ").append(isbn).append("\",")
+                .append("\"subtitle\": \"A stubbed book\",")
+                .append("\"publishers\": [{\"name\": \"Stub Press\"}],")
+                .append("\"authors\": [{\"name\": \"Stub Author\"}],")
+                .append("\"publish_date\": \"2001\", \"number_of_pages\": 240,")
+                .append("\"cover\": {\"medium\": \"https://covers.openlibrary.org/")
+                .append(isbn).append("-M.jpg\"}}");
+        }
+        return json.append('}').toString();
+    }
+}
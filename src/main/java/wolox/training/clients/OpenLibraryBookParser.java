@@ -0,0 +1,149 @@
+package wolox.training.clients;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import wolox.training.dto.OpenLibraryBook;
+
+@Component
+public class OpenLibraryBookParser {
+
+    private static final String BIBKEY_PREFIX = "ISBN:";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private JsonFactory jsonFactory;
+
+    @PostConstruct
+    public void init() {
+        jsonFactory = objectMapper.getFactory();
+    }
+
+    public Map<String, OpenLibraryBook> parseBooks(InputStream body) throws IOException {
+        Map<String, OpenLibraryBook> books = new LinkedHashMap<>();
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return books;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String bibkey = parser.getCurrentName();
+                String isbn = bibkey.startsWith(BIBKEY_PREFIX)
+                    ? bibkey.substring(BIBKEY_PREFIX.length()) : bibkey;
+                if (parser.nextToken() == JsonToken.START_OBJECT) {
+                    books.put(isbn, buildLibraryBookDto(parser, isbn));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return books;
+    }
+
+    public OpenLibraryBook buildLibraryBookDto(JsonParser parser, String isbn)
+        throws IOException {
+        OpenLibraryBook book = new OpenLibraryBook();
+        book.setIsbn(isbn);
+        book.setTitle("");
+        book.setSubtitle("");
+        book.setPublisher("");
+        book.setPublishDate("");
+        book.setAuthors("");
+        book.setImage("");
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "title":
+                    book.setTitle(text(parser));
+                    break;
+                case "subtitle":
+                    book.setSubtitle(text(parser));
+                    break;
+                case "publish_date":
+                    book.setPublishDate(text(parser));
+                    break;
+                case "number_of_pages":
+                    book.setNumberOfPages(pages(parser));
+                    break;
+                case "publishers":
+                    book.setPublisher(firstName(parser));
+                    break;
+                case "authors":
+                    book.setAuthors(firstName(parser));
+                    break;
+                case "cover":
+                    book.setImage(member(parser, "medium"));
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return book;
+    }
+
+    private String text(JsonParser parser) throws IOException {
+        if (parser.currentToken().isScalarValue()) {
+            return parser.getValueAsString("");
+        }
+        parser.skipChildren();
+        return "";
+    }
+
+    private Integer pages(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getIntValue();
+        }
+        if (parser.currentToken() == JsonToken.VALUE_STRING) {
+            try {
+                return Integer.valueOf(parser.getText().trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    private String firstName(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return "";
+        }
+        JsonToken first = parser.nextToken();
+        if (first == JsonToken.END_ARRAY) {
+            return "";
+        }
+        String name = first == JsonToken.START_OBJECT ? member(parser, "name") : text(parser);
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            parser.skipChildren();
+        }
+        return name;
+    }
+
+    private String member(JsonParser parser, String name) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return "";
+        }
+        String value = "";
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if (name.equals(field)) {
+                value = text(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return value;
+    }
+}
@@ -0,0 +1,144 @@
+package wolox.training.clients;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import wolox.training.dto.OpenLibraryBook;
+import wolox.training.exceptions.OpenLibraryInvalidResponseException;
+import wolox.training.exceptions.OpenLibraryUnavailableException;
+
+@Component
+public class OpenLibraryClient {
+
+    private static final String BOOKS_PATH = "/api/books?bibkeys={bibkeys}&format=json&jscmd=data";
+    private static final Pattern ISBN = Pattern.compile("\\d{9}[\\dX]|\\d{13}");
+
+    @Autowired
+    private RestTemplate openLibraryRestTemplate;
+
+    @Autowired
+    private OpenLibraryBookParser openLibraryBookParser;
+
+    @Autowired
+    private CircuitBreaker openLibraryCircuitBreaker;
+
+    @Autowired
+    private RetryBudget openLibraryRetryBudget;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${openLibrary.retry.maxAttempts}")
+    private int maxAttempts;
+
+    @Value("${openLibrary.retry.initialBackoffMs}")
+    private long initialBackoffMs;
+
+    @Value("${openLibrary.retry.maxBackoffMs}")
+    private long maxBackoffMs;
+
+    /**
+     * Strips the hyphens ISBNs are usually printed with and upper-cases an ISBN-10 'x' check
+     * digit, which is the form OpenLibrary answers with and books are stored under.
+     */
+    public static String normalizeIsbn(String isbn) {
+        return isbn == null ? null : isbn.replace("-", "").toUpperCase(Locale.ROOT);
+    }
+
+    public static boolean isIsbn(String isbn) {
+        return isbn != null && ISBN.matcher(normalizeIsbn(isbn)).matches();
+    }
+
+    /**
+     * Malformed ISBNs are left out of the request, since a comma or an ampersand in one would
+     * change the meaning of the bibkeys list; they simply come back as not found. Books are
+     * keyed by normalized ISBN.
+     */
+    public Map<String, OpenLibraryBook> fetchBooks(Collection<String> isbns) {
+        List<String> valid = isbns.stream().filter(OpenLibraryClient::isIsbn)
+            .map(OpenLibraryClient::normalizeIsbn).distinct().collect(Collectors.toList());
+        if (valid.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        String bibkeys = valid.stream().map(isbn -> "ISBN:" + isbn)
+            .collect(Collectors.joining(","));
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            Map<String, OpenLibraryBook> books = openLibraryCircuitBreaker
+                .executeSupplier(() -> getWithRetries(bibkeys));
+            outcome = books.size() < isbns.size() ? "not_found" : "success";
+            return books;
+        } catch (CallNotPermittedException e) {
+            outcome = "circuit_open";
+            throw new OpenLibraryUnavailableException();
+        } catch (ResourceAccessException | HttpServerErrorException e) {
+            outcome = "unavailable";
+            throw new OpenLibraryUnavailableException();
+        } catch (OpenLibraryInvalidResponseException e) {
+            outcome = "invalid_response";
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("openlibrary.requests", "outcome", outcome));
+        }
+    }
+
+    /**
+     * Retries timeouts and 5xx responses, waiting a random time up to an exponentially growing
+     * backoff between attempts. A body that is not valid JSON is thrown as is, since asking again
+     * would only get the same body back.
+     */
+    private Map<String, OpenLibraryBook> getWithRetries(String bibkeys) {
+        openLibraryRetryBudget.deposit();
+        int attempt = 1;
+        while (true) {
+            try {
+                return openLibraryRestTemplate.execute(BOOKS_PATH, HttpMethod.GET, null,
+                    response -> parseBooks(response.getBody()), bibkeys);
+            } catch (ResourceAccessException | HttpServerErrorException e) {
+                if (attempt >= maxAttempts || !openLibraryRetryBudget.tryWithdraw()) {
+                    throw e;
+                }
+                backOff(attempt, e);
+                attempt++;
+            }
+        }
+    }
+
+    private Map<String, OpenLibraryBook> parseBooks(InputStream body) throws IOException {
+        try {
+            return openLibraryBookParser.parseBooks(body);
+        } catch (JsonProcessingException e) {
+            throw new OpenLibraryInvalidResponseException(e);
+        }
+    }
+
+    private void backOff(int attempt, RuntimeException failure) {
+        long backoffMs = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(backoffMs + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw failure;
+        }
+    }
+}
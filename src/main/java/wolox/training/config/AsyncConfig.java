@@ -0,0 +1,64 @@
+package wolox.training.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    @Value("${security.password.hashing.threads}")
+    private int passwordHashingThreads;
+
+    @Value("${security.password.hashing.queueCapacity}")
+    private int passwordHashingQueueCapacity;
+
+    @Value("${security.password.persistence.threads}")
+    private int passwordPersistenceThreads;
+
+    @Value("${security.password.persistence.queueCapacity}")
+    private int passwordPersistenceQueueCapacity;
+
+    @Value("${openLibrary.import.threads}")
+    private int bookImportThreads;
+
+    @Value("${openLibrary.import.queueCapacity}")
+    private int bookImportQueueCapacity;
+
+    @Bean
+    public ThreadPoolTaskExecutor passwordHashingExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(passwordHashingThreads);
+        executor.setMaxPoolSize(passwordHashingThreads);
+        executor.setQueueCapacity(passwordHashingQueueCapacity);
+        executor.setThreadNamePrefix("password-hashing-");
+        return executor;
+    }
+
+    /**
+     * Saves users once their passwords are hashed, so the hashing threads never wait on the
+     * database.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor passwordPersistenceExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(passwordPersistenceThreads);
+        executor.setMaxPoolSize(passwordPersistenceThreads);
+        executor.setQueueCapacity(passwordPersistenceQueueCapacity);
+        executor.setThreadNamePrefix("password-persistence-");
+        executor.setTaskDecorator(ReadWriteRoutingDataSource::propagateClient);
+        return executor;
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor bookImportExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(bookImportThreads);
+        executor.setMaxPoolSize(bookImportThreads);
+        executor.setQueueCapacity(bookImportQueueCapacity);
+        executor.setThreadNamePrefix("book-import-");
+        executor.setTaskDecorator(ReadWriteRoutingDataSource::propagateClient);
+        return executor;
+    }
+}
@@ -0,0 +1,45 @@
+package wolox.training.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hands Hibernate's second-level cache a Caffeine JCache manager configured in
+ * {@code application.conf}, and publishes hit, miss and eviction counts for its regions.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    public static final List<String> REGIONS = Arrays.asList("books", "books-by-isbn",
+        "books-by-author", "default-query-results-region", "default-update-timestamps-region");
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        return Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+            .getCacheManager();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(
+        CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    @Bean
+    public MeterBinder hibernateCacheMetrics(CacheManager hibernateCacheManager) {
+        return registry -> REGIONS.stream()
+            .map(region -> hibernateCacheManager.getCache(region))
+            .filter(Objects::nonNull)
+            .forEach(cache -> JCacheMetrics.monitor(registry, cache));
+    }
+}
@@ -0,0 +1,96 @@
+package wolox.training.config;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import java.time.Duration;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+import wolox.training.clients.RetryBudget;
+
+@Configuration
+public class OpenLibraryConfig {
+
+    @Value("${openLibrary.baseUrl}")
+    private String baseUrl;
+
+    @Value("${openLibrary.http.connectTimeoutMs}")
+    private int connectTimeoutMs;
+
+    @Value("${openLibrary.http.readTimeoutMs}")
+    private int readTimeoutMs;
+
+    @Value("${openLibrary.http.connectionRequestTimeoutMs}")
+    private int connectionRequestTimeoutMs;
+
+    @Value("${openLibrary.http.maxConnections}")
+    private int maxConnections;
+
+    @Value("${openLibrary.http.maxConnectionsPerHost}")
+    private int maxConnectionsPerHost;
+
+    @Value("${openLibrary.circuitBreaker.failureRateThreshold}")
+    private float failureRateThreshold;
+
+    @Value("${openLibrary.circuitBreaker.slidingWindowSize}")
+    private int slidingWindowSize;
+
+    @Value("${openLibrary.circuitBreaker.waitDurationInOpenStateSeconds}")
+    private long waitDurationInOpenStateSeconds;
+
+    @Value("${openLibrary.retry.budgetRatio}")
+    private double retryBudgetRatio;
+
+    @Value("${openLibrary.retry.budgetMaxTokens}")
+    private double retryBudgetMaxTokens;
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient openLibraryHttpClient() {
+        PoolingHttpClientConnectionManager connectionManager =
+            new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerHost);
+        RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectTimeout(connectTimeoutMs)
+            .setSocketTimeout(readTimeoutMs)
+            .setConnectionRequestTimeout(connectionRequestTimeoutMs)
+            .build();
+        return HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .disableAutomaticRetries()
+            .build();
+    }
+
+    @Bean
+    public RestTemplate openLibraryRestTemplate(RestTemplateBuilder restTemplateBuilder,
+        CloseableHttpClient openLibraryHttpClient) {
+        return restTemplateBuilder
+            .rootUri(baseUrl)
+            .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(openLibraryHttpClient))
+            .build();
+    }
+
+    @Bean
+    public CircuitBreaker openLibraryCircuitBreaker() {
+        return CircuitBreaker.of("openLibrary", CircuitBreakerConfig.custom()
+            .failureRateThreshold(failureRateThreshold)
+            .slidingWindowSize(slidingWindowSize)
+            .waitDurationInOpenState(Duration.ofSeconds(waitDurationInOpenStateSeconds))
+            .ignoreExceptions(HttpClientErrorException.class)
+            .build());
+    }
+
+    @Bean
+    public RetryBudget openLibraryRetryBudget() {
+        return new RetryBudget(retryBudgetRatio, retryBudgetMaxTokens);
+    }
+}
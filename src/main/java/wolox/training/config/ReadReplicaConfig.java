@@ -0,0 +1,73 @@
+package wolox.training.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Replaces the single auto-configured pool with a primary pool from
+ * {@code spring.datasource.*} and replica pools from {@code replicaDatasource.pools}, routed
+ * by {@link ReadWriteRoutingDataSource}. Flyway keeps migrating the primary.
+ */
+@Configuration
+@ConditionalOnProperty(name = "replicaDatasource.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Value("${replicaDatasource.stickySeconds}")
+    private long stickySeconds;
+
+    private final List<HikariDataSource> replicas = new ArrayList<>();
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("replicaDatasource")
+    public ReplicaDataSourceProperties replicaDataSourceProperties() {
+        return new ReplicaDataSourceProperties();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+        ReplicaDataSourceProperties replicaDataSourceProperties,
+        ObjectProvider<MeterRegistry> meterRegistry) {
+        List<HikariConfig> pools = replicaDataSourceProperties.getPools();
+        for (int i = 0; i < pools.size(); i++) {
+            HikariConfig pool = pools.get(i);
+            if (pool.getPoolName() == null) {
+                pool.setPoolName("replica-" + i);
+            }
+            meterRegistry.ifAvailable(registry -> pool
+                .setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.add(new HikariDataSource(pool));
+        }
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(
+            primaryDataSource, replicas, Duration.ofSeconds(stickySeconds)));
+    }
+
+    @PreDestroy
+    public void closeReplicas() {
+        replicas.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,137 @@
+package wolox.training.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Sends read-only transactions to the replicas in turn and everything else to the primary.
+ * A client whose read-write transaction committed keeps reading from the primary for the
+ * stickiness window, so they see their own writes despite replication lag. A client is known by
+ * its user name and by its address, so anonymous writes such as sign-ups count too; executors
+ * that write on a client's behalf carry it over with {@link #propagateClient}. Sharing an
+ * address only sends more reads to the primary, never a stale one to the writer. Must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, because the
+ * transaction is only marked read-only after it has asked for a connection.
+ * {@link #onPrimary} keeps reads that must not lag behind, or that feed a shared cache, off the
+ * replicas.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica-";
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private static final ThreadLocal<Set<String>> CLIENT = new ThreadLocal<>();
+
+    private final List<String> replicas = new ArrayList<>();
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<? extends DataSource> replicas,
+        Duration stickiness) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.add(REPLICA + i);
+            targets.put(REPLICA + i, replicas.get(i));
+        }
+        recentWriters = Caffeine.newBuilder().expireAfterWrite(stickiness).build();
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Runs {@code work} with every connection it opens taken from the primary, including those
+     * of read-only transactions started inside it.
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        if (PINNED.get() != null) {
+            return work.get();
+        }
+        PINNED.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            PINNED.remove();
+        }
+    }
+
+    /**
+     * Wraps a task so that it runs as the client that submitted it, for use as the
+     * {@link org.springframework.core.task.TaskDecorator} of executors that write.
+     */
+    public static Runnable propagateClient(Runnable task) {
+        Set<String> client = currentClient();
+        return () -> {
+            CLIENT.set(client);
+            try {
+                task.run();
+            } finally {
+                CLIENT.remove();
+            }
+        };
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Set<String> client = currentClient();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (!client.isEmpty() && TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager
+                    .registerSynchronization(new TransactionSynchronizationAdapter() {
+                        @Override
+                        public void afterCommit() {
+                            client.forEach(key -> recentWriters.put(key, Boolean.TRUE));
+                        }
+                    });
+            }
+            return PRIMARY;
+        }
+        if (replicas.isEmpty() || PINNED.get() != null
+            || client.stream().anyMatch(key -> recentWriters.getIfPresent(key) != null)) {
+            return PRIMARY;
+        }
+        return replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+    }
+
+    private static Set<String> currentClient() {
+        Set<String> propagated = CLIENT.get();
+        if (propagated != null) {
+            return propagated;
+        }
+        Set<String> client = new HashSet<>();
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && !(authentication instanceof AnonymousAuthenticationToken)) {
+            client.add("user:" + authentication.getName());
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes) {
+            client.add("address:"
+                + ((ServletRequestAttributes) attributes).getRequest().getRemoteAddr());
+        }
+        return client;
+    }
+}
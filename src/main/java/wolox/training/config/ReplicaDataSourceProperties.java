@@ -0,0 +1,18 @@
+package wolox.training.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * One Hikari configuration per replica, bound from {@code replicaDatasource.pools[n].*}.
+ */
+@Getter
+@Setter
+public class ReplicaDataSourceProperties {
+
+    private List<HikariConfig> pools = new ArrayList<>();
+
+}
@@ -1,19 +1,27 @@
 package wolox.training.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationServiceException;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.builders.WebSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.web.AuthenticationEntryPoint;
+import org.springframework.security.web.authentication.www.BasicAuthenticationEntryPoint;
 import wolox.training.providers.CustomAuthenticationProvider;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
+    private static final String REALM = "Realm";
+
     @Autowired
     private CustomAuthenticationProvider authProvider;
 
@@ -25,9 +33,27 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     @Override
     protected void configure(HttpSecurity http) throws Exception {
         http.csrf().disable().authorizeRequests()
+            .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
             .anyRequest().authenticated()
             .and()
-            .httpBasic();
+            .httpBasic().authenticationEntryPoint(authenticationEntryPoint());
+    }
+
+    /**
+     * Basic authentication challenges every failed login with 401, including one that failed
+     * because password verification had no capacity left; that one is answered with 503.
+     */
+    private AuthenticationEntryPoint authenticationEntryPoint() {
+        BasicAuthenticationEntryPoint basic = new BasicAuthenticationEntryPoint();
+        basic.setRealmName(REALM);
+        return (request, response, authException) -> {
+            if (authException instanceof AuthenticationServiceException) {
+                response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(),
+                    authException.getMessage());
+            } else {
+                basic.commence(request, response, authException);
+            }
+        };
     }
 
     @Override
@@ -1,14 +1,17 @@
 package wolox.training.controllers;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.ui.Model;
@@ -18,28 +21,70 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
-import wolox.training.dto.OpenLibraryBook;
+import org.springframework.web.context.request.WebRequest;
+import wolox.training.clients.OpenLibraryClient;
+import wolox.training.dto.BookImportStatus;
+import wolox.training.dto.BookSearchResult;
+import wolox.training.dto.BookSummary;
+import wolox.training.dto.KeysetPage;
+import wolox.training.dto.ResourceVersion;
 import wolox.training.exceptions.BookIdMismatchException;
-import wolox.training.exceptions.BookNotFoundException;
+import wolox.training.exceptions.BookImportNotFoundException;
+import wolox.training.exceptions.InvalidPageSizeException;
 import wolox.training.models.Book;
 import wolox.training.repositories.BookRepository;
+import wolox.training.repositories.BookSpecifications;
+import wolox.training.repositories.KeysetPaginator;
+import wolox.training.repositories.ProjectionPaginator;
+import wolox.training.services.BookImportService;
+import wolox.training.services.BookSearchService;
+import wolox.training.services.BookService;
 import wolox.training.services.OpenLibraryService;
+import wolox.training.services.PrimaryReadService;
+import wolox.training.services.ReplicaReadService;
 
 @RestController
 @RequestMapping("/api/books")
 @Api(tags = "Book")
 public class BookController {
 
+    private static final Set<String> KEYSET_SORT_KEYS = new HashSet<>(
+        Arrays.asList("id", "title", "author", "publisher", "year", "isbn", "pages"));
+
+    private static final int MAX_SEARCH_SIZE = 100;
+
     @Autowired
     private BookRepository bookRepository;
 
+    @Autowired
+    private KeysetPaginator keysetPaginator;
+
+    @Autowired
+    private ProjectionPaginator projectionPaginator;
+
     @Autowired
     private OpenLibraryService openLibraryService;
 
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private BookSearchService bookSearchService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private PrimaryReadService primaryReadService;
+
+    @Autowired
+    private ReplicaReadService replicaReadService;
+
     @GetMapping("/greeting")
     public String greeting(@RequestParam(name = "name", required = false, defaultValue = "World")
         String name, Model model) {
@@ -61,6 +106,19 @@ public class BookController {
         return bookRepository.save(book);
     }
 
+    @PostMapping("/bulk")
+    @ResponseStatus(HttpStatus.CREATED)
+    @ApiOperation(value = "Create several books at once", response = Iterable.class)
+    @ApiResponses(value = {
+        @ApiResponse(code = 201, message = "Books created successfully"),
+        @ApiResponse(code = 400, message = "A bad request was sent"),
+        @ApiResponse(code = 401, message = "You are not authorized to access this resource"),
+        @ApiResponse(code = 500, message = "Internal server error")
+    })
+    public Iterable<Book> createAll(@RequestBody List<Book> books) {
+        return bookRepository.saveAll(books);
+    }
+
     @GetMapping
     @ApiOperation(value = "Retrieve list of created books", response = Iterable.class)
     @ApiResponses(value = {
@@ -70,7 +128,7 @@ public class BookController {
         @ApiResponse(code = 404, message = "The resource you are trying to access was not found"),
         @ApiResponse(code = 500, message = "Internal server error")
     })
-    public Iterable<Book> findAll(
+    public ResponseEntity<Iterable<BookSummary>> findAll(
         @RequestParam(name = "genre", required = false) String genre,
         @RequestParam(name = "author", required = false) String author,
         @RequestParam(name = "image", required = false) String image,
@@ -79,10 +137,46 @@ public class BookController {
         @RequestParam(name = "publisher", required = false) String publisher,
         @RequestParam(name = "year", required = false) String year,
         @RequestParam(name = "pages", required = false) Integer pages,
-        @RequestParam(name = "isbn", required = false) String isbn, Pageable pageable) {
-        return bookRepository
-            .findAllByFilter(genre, author, image, title, subtitle, publisher, year, pages, isbn,
-                pageable);
+        @RequestParam(name = "isbn", required = false) String isbn, Pageable pageable,
+        WebRequest request) {
+        return replicaReadService.read(() -> ConditionalResponses.ok(request,
+            bookRepository.findCatalogVersion(), ConditionalResponses.REVALIDATE,
+            () -> projectionPaginator.find(Book.class, BookSummary.class,
+                BookSummary.ATTRIBUTES, BookSpecifications.withFilter(genre, author, image,
+                    title, subtitle, publisher, year, pages, isbn), pageable)));
+    }
+
+    @GetMapping("/keyset")
+    @ApiOperation(value = "Retrieve books page by page with a continuation cursor",
+        response = KeysetPage.class)
+    @ApiResponses(value = {
+        @ApiResponse(code = 200, message = "Successfully retrieved page"),
+        @ApiResponse(code = 400, message = "A bad request was sent"),
+        @ApiResponse(code = 401, message = "You are not authorized to access this resource"),
+        @ApiResponse(code = 500, message = "Internal server error")
+    })
+    public ResponseEntity<KeysetPage<BookSummary>> findAllByKeyset(
+        @RequestParam(name = "genre", required = false) String genre,
+        @RequestParam(name = "author", required = false) String author,
+        @RequestParam(name = "image", required = false) String image,
+        @RequestParam(name = "title", required = false) String title,
+        @RequestParam(name = "subtitle", required = false) String subtitle,
+        @RequestParam(name = "publisher", required = false) String publisher,
+        @RequestParam(name = "year", required = false) String year,
+        @RequestParam(name = "pages", required = false) Integer pages,
+        @RequestParam(name = "isbn", required = false) String isbn,
+        @RequestParam(name = "cursor", required = false) String cursor,
+        @RequestParam(name = "size", defaultValue = "20") int size,
+        @RequestParam(name = "sort", defaultValue = "id") String sort,
+        @RequestParam(name = "direction", defaultValue = "asc") String direction,
+        @RequestParam(name = "count", defaultValue = "false") boolean count,
+        WebRequest request) {
+        return replicaReadService.read(() -> ConditionalResponses.ok(request,
+            bookRepository.findCatalogVersion(), ConditionalResponses.REVALIDATE,
+            () -> keysetPaginator.find(Book.class, BookSummary.class,
+                BookSummary.ATTRIBUTES, BookSpecifications.withFilter(genre, author, image,
+                    title, subtitle, publisher, year, pages, isbn),
+                KEYSET_SORT_KEYS, sort, direction, cursor, size, count)));
     }
 
     @PutMapping("/{id}")
@@ -92,14 +186,15 @@ public class BookController {
         @ApiResponse(code = 400, message = "A bad request was sent"),
         @ApiResponse(code = 401, message = "You are not authorized to access this resource"),
         @ApiResponse(code = 404, message = "The resource you are trying to access was not found"),
+        @ApiResponse(code = 412, message = "The book was modified since the given ETag"),
         @ApiResponse(code = 500, message = "Internal server error")
     })
-    public Book updateBook(@RequestBody Book book, @PathVariable Long id) {
+    public Book updateBook(@RequestBody Book book, @PathVariable Long id,
+        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         if (book.getId() != id) {
             throw new BookIdMismatchException();
         }
-        bookRepository.findById(id).orElseThrow(BookNotFoundException::new);
-        return bookRepository.save(book);
+        return bookService.updateBook(id, book, ResourceVersion.acceptedVersions(ifMatch));
     }
 
     @DeleteMapping("/{id}")
@@ -112,21 +207,26 @@ public class BookController {
         @ApiResponse(code = 500, message = "Internal server error")
     })
     public void delete(@PathVariable Long id) {
-        bookRepository.findById(id).orElseThrow(BookNotFoundException::new);
-        bookRepository.deleteById(id);
+        bookService.deleteBook(id);
     }
 
     @GetMapping("/{id}")
     @ApiOperation(value = "Retrieve a book by id", response = Book.class)
     @ApiResponses(value = {
         @ApiResponse(code = 200, message = "Successfully retrieved book"),
+        @ApiResponse(code = 304, message = "The book did not change since the given ETag"),
         @ApiResponse(code = 400, message = "A bad request was sent"),
         @ApiResponse(code = 401, message = "You are not authorized to access this resource"),
         @ApiResponse(code = 404, message = "The resource you are trying to access was not found"),
         @ApiResponse(code = 500, message = "Internal server error")
     })
-    public Book findOne(@PathVariable Long id) {
-        return bookRepository.findById(id).orElseThrow(BookIdMismatchException::new);
+    public ResponseEntity<Book> findOne(@PathVariable Long id, WebRequest request) {
+        return primaryReadService.read(() -> {
+            ResourceVersion version = bookRepository.findVersionById(id)
+                .orElseThrow(BookIdMismatchException::new);
+            return ConditionalResponses.ok(request, version, ConditionalResponses.REVALIDATE,
+                () -> bookRepository.findById(id).orElseThrow(BookIdMismatchException::new));
+        });
     }
 
     @GetMapping("/author/{bookAuthor}")
@@ -138,8 +238,11 @@ public class BookController {
         @ApiResponse(code = 404, message = "The resource you are trying to access was not found"),
         @ApiResponse(code = 500, message = "Internal server error")
     })
-    public List findByAuthor(@PathVariable String bookAuthor) {
-        return bookRepository.findByAuthor(bookAuthor);
+    public ResponseEntity<List<BookSummary>> findByAuthor(@PathVariable String bookAuthor,
+        WebRequest request) {
+        return primaryReadService.read(() -> ConditionalResponses.ok(request,
+            bookRepository.findCatalogVersion(), ConditionalResponses.REVALIDATE,
+            () -> bookRepository.findSummariesByAuthor(bookAuthor)));
     }
 
     @GetMapping("/isbn/{isbn}")
@@ -152,22 +255,73 @@ public class BookController {
         @ApiResponse(code = 404, message = "The resource you are trying to access was not found"),
         @ApiResponse(code = 500, message = "Internal server error")
     })
-    public ResponseEntity<Book> findByIsbn(@PathVariable String isbn)
-        throws JsonProcessingException {
-        Optional<Book> book = bookRepository.findByIsbn(isbn);
+    public ResponseEntity<Book> findByIsbn(@PathVariable String isbn) {
+        String normalized = OpenLibraryClient.normalizeIsbn(isbn);
+        Optional<Book> book = primaryReadService.read(
+            () -> bookRepository.findByIsbn(normalized));
         if (book.isPresent()) {
             return ResponseEntity.status(HttpStatus.OK).body(book.get());
         }
-        OpenLibraryBook openLibraryBook = openLibraryService.bookInfo(isbn);
         return ResponseEntity.status(HttpStatus.CREATED)
-            .body(openLibraryService.saveBook(openLibraryBook));
+            .body(openLibraryService.importBook(normalized));
     }
 
     @GetMapping("/search")
-    public List<Book> findByPublisherAndGenreAndYear(
+    public List<BookSummary> findByPublisherAndGenreAndYear(
         @RequestParam(name = "publisher", required = false) String publisher,
         @RequestParam(name = "genre", required = false) String genre,
         @RequestParam(name = "year", required = false) String year) {
-        return bookRepository.findByPublisherAndGenreAndYear(publisher, genre, year);
+        return projectionPaginator.find(Book.class, BookSummary.class, BookSummary.ATTRIBUTES,
+            BookSpecifications.withFilter(genre, null, null, null, null, publisher, year, null,
+                null), Pageable.unpaged()).getContent();
+    }
+
+    @GetMapping("/find")
+    @ApiOperation(value = "Search books by words, prefixes or misspellings with facet counts",
+        response = BookSearchResult.class)
+    @ApiResponses(value = {
+        @ApiResponse(code = 200, message = "Successfully retrieved books"),
+        @ApiResponse(code = 400, message = "A bad request was sent"),
+        @ApiResponse(code = 401, message = "You are not authorized to access this resource"),
+        @ApiResponse(code = 500, message = "Internal server error")
+    })
+    public BookSearchResult find(
+        @RequestParam(name = "q", defaultValue = "") String query,
+        @RequestParam(name = "genre", required = false) String genre,
+        @RequestParam(name = "year", required = false) String year,
+        @RequestParam(name = "publisher", required = false) String publisher,
+        @RequestParam(name = "size", defaultValue = "20") int size) {
+        if (size < 1 || size > MAX_SEARCH_SIZE) {
+            throw new InvalidPageSizeException();
+        }
+        return bookSearchService.search(query, genre, year, publisher, size);
+    }
+
+    @PostMapping("/import")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @ApiOperation(value = "Import books from OpenLibrary by ISBN",
+        response = BookImportStatus.class)
+    @ApiResponses(value = {
+        @ApiResponse(code = 202, message = "Import started"),
+        @ApiResponse(code = 400, message = "A bad request was sent"),
+        @ApiResponse(code = 401, message = "You are not authorized to access this resource"),
+        @ApiResponse(code = 503, message = "Too many imports in progress"),
+        @ApiResponse(code = 500, message = "Internal server error")
+    })
+    public BookImportStatus importBooks(@RequestBody List<String> isbns) {
+        return bookImportService.start(isbns);
+    }
+
+    @GetMapping("/import/{importId}")
+    @ApiOperation(value = "Retrieve the progress of a book import",
+        response = BookImportStatus.class)
+    @ApiResponses(value = {
+        @ApiResponse(code = 200, message = "Successfully retrieved import"),
+        @ApiResponse(code = 401, message = "You are not authorized to access this resource"),
+        @ApiResponse(code = 404, message = "The resource you are trying to access was not found"),
+        @ApiResponse(code = 500, message = "Internal server error")
+    })
+    public BookImportStatus findImport(@PathVariable String importId) {
+        return bookImportService.status(importId).orElseThrow(BookImportNotFoundException::new);
     }
 }
@@ -0,0 +1,30 @@
+package wolox.training.controllers;
+
+import java.util.function.Supplier;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+import wolox.training.dto.ResourceVersion;
+
+final class ConditionalResponses {
+
+    /**
+     * Clients may keep a copy but must revalidate it, which costs a 304 when nothing changed.
+     */
+    static final CacheControl REVALIDATE = CacheControl.noCache();
+
+    private ConditionalResponses() {
+    }
+
+    /**
+     * Returns {@code null} after {@link WebRequest#checkNotModified} has turned the response
+     * into a 304, so {@code body} is only loaded when the client's copy is stale.
+     */
+    static <T> ResponseEntity<T> ok(WebRequest request, ResourceVersion version,
+        CacheControl cacheControl, Supplier<T> body) {
+        if (request.checkNotModified(version.getETag(), version.getLastModifiedMillis())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(cacheControl).body(body.get());
+    }
+}
@@ -2,11 +2,19 @@ package wolox.training.controllers;
 
 import java.security.Principal;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -18,100 +26,166 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
-import wolox.training.exceptions.BookIdMismatchException;
+import org.springframework.web.context.request.WebRequest;
+import wolox.training.dto.KeysetPage;
+import wolox.training.dto.ResourceVersion;
+import wolox.training.dto.UserSummary;
 import wolox.training.exceptions.UserIdMismatchException;
 import wolox.training.exceptions.UserNotFoundException;
-import wolox.training.models.Book;
 import wolox.training.models.User;
 import wolox.training.repositories.BookRepository;
+import wolox.training.repositories.KeysetPaginator;
+import wolox.training.repositories.ProjectionPaginator;
 import wolox.training.repositories.UserRepository;
+import wolox.training.repositories.UserSpecifications;
+import wolox.training.services.PrimaryReadService;
+import wolox.training.services.ReplicaReadService;
 import wolox.training.services.UserService;
 
 @RestController
 @RequestMapping("api/users")
 public class UserController {
 
+    private static final Set<String> KEYSET_SORT_KEYS = new HashSet<>(
+        Arrays.asList("id", "userName", "name", "birthDate"));
+
+    private static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private BookRepository bookRepository;
 
+    @Autowired
+    private KeysetPaginator keysetPaginator;
+
+    @Autowired
+    private ProjectionPaginator projectionPaginator;
+
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private PrimaryReadService primaryReadService;
+
+    @Autowired
+    private ReplicaReadService replicaReadService;
+
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public User create(@RequestBody User user) {
-        user.setPassword(user.getPassword());
-        return userRepository.save(user);
+    public CompletableFuture<User> create(@RequestBody User user) {
+        return userService.createUser(user);
+    }
+
+    @PostMapping("/bulk")
+    @ResponseStatus(HttpStatus.CREATED)
+    public CompletableFuture<Iterable<User>> createAll(@RequestBody List<User> users) {
+        return userService.createUsers(users);
     }
 
     @GetMapping
-    public Iterable<User> findAll(
+    public ResponseEntity<Iterable<UserSummary>> findAll(
+        @RequestParam(name = "id", required = false) Long id,
+        @RequestParam(name = "userName", required = false) String userName,
+        @RequestParam(name = "name", required = false) String name,
+        @RequestParam(name = "birthDate", required = false)
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate birthDate, Pageable pageable,
+        WebRequest request) {
+        return replicaReadService.read(() -> ConditionalResponses.ok(request,
+            directoryVersion(), CACHE_CONTROL, () -> {
+                Page<UserSummary> page = projectionPaginator.find(User.class, UserSummary.class,
+                    UserSummary.ATTRIBUTES,
+                    UserSpecifications.withFilter(id, userName, name, birthDate), pageable);
+                userRepository.withBooks(page.getContent());
+                return page;
+            }));
+    }
+
+    @GetMapping("/keyset")
+    public ResponseEntity<KeysetPage<UserSummary>> findAllByKeyset(
         @RequestParam(name = "id", required = false) Long id,
         @RequestParam(name = "userName", required = false) String userName,
         @RequestParam(name = "name", required = false) String name,
         @RequestParam(name = "birthDate", required = false)
-        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate birthDate, Pageable pageable) {
-        return userRepository.findAllByFilter(id, userName, name, birthDate, pageable);
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate birthDate,
+        @RequestParam(name = "cursor", required = false) String cursor,
+        @RequestParam(name = "size", defaultValue = "20") int size,
+        @RequestParam(name = "sort", defaultValue = "id") String sort,
+        @RequestParam(name = "direction", defaultValue = "asc") String direction,
+        @RequestParam(name = "count", defaultValue = "false") boolean count,
+        WebRequest request) {
+        return replicaReadService.read(() -> ConditionalResponses.ok(request,
+            directoryVersion(), CACHE_CONTROL, () -> {
+                KeysetPage<UserSummary> page = keysetPaginator.find(User.class,
+                    UserSummary.class, UserSummary.ATTRIBUTES,
+                    UserSpecifications.withFilter(id, userName, name, birthDate),
+                    KEYSET_SORT_KEYS, sort, direction, cursor, size, count);
+                userRepository.withBooks(page.getContent());
+                return page;
+            }));
     }
 
     @PutMapping("/{id}")
-    public User update(@RequestBody User modifiedUser, @PathVariable Long id) {
+    public User update(@RequestBody User modifiedUser, @PathVariable Long id,
+        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         if (modifiedUser.getId() != id) {
             throw new UserIdMismatchException();
         }
-        User user = userRepository.findById(id).orElseThrow(UserNotFoundException::new);
-        return userService.updateUser(user, modifiedUser);
+        return userService
+            .updateUser(id, modifiedUser, ResourceVersion.acceptedVersions(ifMatch));
     }
 
     @DeleteMapping("/{id}")
     public void delete(@PathVariable Long id) {
-        userRepository.findById(id).orElseThrow(UserNotFoundException::new);
-        userRepository.deleteById(id);
+        userService.deleteUser(id);
     }
 
     @GetMapping("/{id}")
-    public User findById(@PathVariable Long id) {
-        return userRepository.findById(id).orElseThrow(UserNotFoundException::new);
+    public ResponseEntity<User> findById(@PathVariable Long id, WebRequest request) {
+        return primaryReadService.read(() -> {
+            ResourceVersion version = userRepository.findVersionById(id)
+                .orElseThrow(UserNotFoundException::new);
+            return ConditionalResponses.ok(request, version, CACHE_CONTROL,
+                () -> userRepository.findWithBooksById(id)
+                    .orElseThrow(UserNotFoundException::new));
+        });
     }
 
     @PostMapping("{user_id}/books/{book_id}")
     public User addBookToCollection(@PathVariable Long user_id, @PathVariable Long book_id) {
-        User user = userRepository.findById(user_id).orElseThrow(UserIdMismatchException::new);
-        Book book = bookRepository.findById(book_id).orElseThrow(BookIdMismatchException::new);
-        user.addBook(book);
-        return userRepository.save(user);
+        return userService.addBook(user_id, book_id);
     }
 
     @DeleteMapping("{user_id}/books/{book_id}")
     public User deleteBookToCollection(@PathVariable Long user_id, @PathVariable Long book_id) {
-        User user = userRepository.findById(user_id).orElseThrow(UserIdMismatchException::new);
-        Book book = bookRepository.findById(book_id).orElseThrow(BookIdMismatchException::new);
-        user.deleteBook(book);
-        return userRepository.save(user);
+        return userService.removeBook(user_id, book_id);
     }
 
     @PutMapping("/{id}/password")
-    public User updatePassword(@RequestHeader(value = "Password") String password,
+    public CompletableFuture<User> updatePassword(@RequestHeader(value = "Password") String password,
         @PathVariable Long id) {
-        User user = userRepository.findById(id).orElseThrow(UserNotFoundException::new);
+        User user = primaryReadService.read(() -> userRepository.findById(id))
+            .orElseThrow(UserNotFoundException::new);
         return userService.updateUserPassword(user, password);
     }
 
+    private ResourceVersion directoryVersion() {
+        return userRepository.findDirectoryVersion().and(bookRepository.findCatalogVersion());
+    }
+
     @GetMapping("/username")
     public String currentUserName(Principal principal) {
         return principal.getName();
     }
 
     @GetMapping("/search")
-    public List<User> findByBirthDateBetweenAndNameContaining(
+    public List<UserSummary> findByBirthDateBetweenAndNameContaining(
         @RequestParam(name = "startDate", defaultValue = "0000-01-01") String startDate,
         @RequestParam(name = "endDate", defaultValue = "9999-12-31") String endDate,
         @RequestParam(name = "name", defaultValue = "") String name) {
         LocalDate firstDate = LocalDate.parse(startDate);
         LocalDate lastDate = LocalDate.parse(endDate);
-        return userRepository.findByBirthDateBetweenAndNameContaining(firstDate, lastDate, name);
+        return userRepository.searchByBirthDateAndName(firstDate, lastDate, name);
     }
 }
@@ -0,0 +1,35 @@
+package wolox.training.dto;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.Getter;
+
+@Getter
+public class BookImportStatus {
+
+    public enum State {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private final String id;
+    private final int total;
+    private volatile State state = State.QUEUED;
+    private final AtomicInteger processed = new AtomicInteger();
+    private final AtomicInteger imported = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final Map<String, String> failures = new ConcurrentHashMap<>();
+
+    public BookImportStatus(String id, int total) {
+        this.id = id;
+        this.total = total;
+    }
+
+    public void setState(State state) {
+        this.state = state;
+    }
+
+    public void fail(String isbn, String reason) {
+        failures.put(isbn, reason);
+    }
+}
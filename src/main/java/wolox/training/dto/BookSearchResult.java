@@ -0,0 +1,17 @@
+package wolox.training.dto;
+
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import wolox.training.models.Book;
+
+@Getter
+@AllArgsConstructor
+public class BookSearchResult {
+
+    private final List<Book> content;
+    private final long totalElements;
+    private final Map<String, Map<String, Long>> facets;
+
+}
@@ -0,0 +1,60 @@
+package wolox.training.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import lombok.Getter;
+
+/**
+ * Read-only view of a book for list responses, with the same JSON shape as the entity.
+ */
+@Getter
+public class BookSummary {
+
+    public static final List<String> ATTRIBUTES = Collections.unmodifiableList(Arrays.asList(
+        "id", "genre", "author", "image", "title", "subtitle", "publisher", "year", "pages",
+        "isbn", "version", "lastModified"));
+
+    private final long id;
+    private final String genre;
+    private final String author;
+    private final String image;
+    private final String title;
+    private final String subtitle;
+    private final String publisher;
+    private final String year;
+    private final Integer pages;
+    private final String isbn;
+    private final long version;
+    private final Instant lastModified;
+
+    @JsonIgnore
+    private final Long ownerId;
+
+    public BookSummary(long id, String genre, String author, String image, String title,
+        String subtitle, String publisher, String year, Integer pages, String isbn,
+        long version, Instant lastModified) {
+        this(null, id, genre, author, image, title, subtitle, publisher, year, pages, isbn,
+            version, lastModified);
+    }
+
+    public BookSummary(Long ownerId, long id, String genre, String author, String image,
+        String title, String subtitle, String publisher, String year, Integer pages,
+        String isbn, long version, Instant lastModified) {
+        this.ownerId = ownerId;
+        this.id = id;
+        this.genre = genre;
+        this.author = author;
+        this.image = image;
+        this.title = title;
+        this.subtitle = subtitle;
+        this.publisher = publisher;
+        this.year = year;
+        this.pages = pages;
+        this.isbn = isbn;
+        this.version = version;
+        this.lastModified = lastModified;
+    }
+}
@@ -0,0 +1,15 @@
+package wolox.training.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class KeysetPage<T> {
+
+    private final List<T> content;
+    private final String nextCursor;
+    private final Long totalElements;
+
+}
@@ -0,0 +1,79 @@
+package wolox.training.dto;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import lombok.Getter;
+
+/**
+ * Validators of a resource read through a projection query, so conditional requests are answered
+ * without loading the entity. Single resources get a strong ETag from their version column;
+ * listings get a weak one from the table's change counter, which every write statement bumps
+ * in its own transaction, so no two states of the table share a tag.
+ */
+@Getter
+public class ResourceVersion {
+
+    private final Long version;
+    private final String eTag;
+    private final Instant lastModified;
+
+    public ResourceVersion(Long version, Instant lastModified) {
+        this(version, "\"" + version + "\"", lastModified);
+    }
+
+    public ResourceVersion(Long version, Instant lastModified, Long contentsVersion,
+        Instant contentsLastModified) {
+        this(version, "\"" + version + "-" + contentsVersion + "\"",
+            contentsLastModified != null && contentsLastModified.isAfter(lastModified)
+                ? contentsLastModified : lastModified);
+    }
+
+    public ResourceVersion(Long changes) {
+        this(null, "W/\"" + changes + "\"", null);
+    }
+
+    private ResourceVersion(Long version, String eTag, Instant lastModified) {
+        this.version = version;
+        this.eTag = eTag;
+        this.lastModified = lastModified;
+    }
+
+    public ResourceVersion and(ResourceVersion other) {
+        return new ResourceVersion(null,
+            "W/\"" + opaqueTag(eTag) + "." + opaqueTag(other.getETag()) + "\"", null);
+    }
+
+    public long getLastModifiedMillis() {
+        return lastModified == null ? -1 : lastModified.toEpochMilli();
+    }
+
+    /**
+     * Versions named by an {@code If-Match} header, or {@code null} when it sets no precondition.
+     * Weak tags can never match strongly, so they are left out.
+     */
+    public static Set<Long> acceptedVersions(String ifMatch) {
+        if (ifMatch == null || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        Set<Long> versions = new HashSet<>();
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+                String opaque = tag.substring(1, tag.length() - 1);
+                int separator = opaque.indexOf('-');
+                try {
+                    versions.add(
+                        Long.valueOf(separator < 0 ? opaque : opaque.substring(0, separator)));
+                } catch (NumberFormatException e) {
+                    // not one of ours, so it matches nothing
+                }
+            }
+        }
+        return versions;
+    }
+
+    private static String opaqueTag(String eTag) {
+        return eTag.substring(eTag.indexOf('"') + 1, eTag.length() - 1);
+    }
+}
@@ -0,0 +1,39 @@
+package wolox.training.dto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Read-only view of a user for list responses, with the same JSON shape as the entity.
+ */
+@Getter
+public class UserSummary {
+
+    public static final List<String> ATTRIBUTES = Collections.unmodifiableList(Arrays.asList(
+        "id", "userName", "name", "birthDate", "version", "lastModified"));
+
+    private final Long id;
+    private final String userName;
+    private final String name;
+    private final LocalDate birthDate;
+    private final long version;
+    private final Instant lastModified;
+
+    @Setter
+    private List<BookSummary> books = Collections.emptyList();
+
+    public UserSummary(Long id, String userName, String name, LocalDate birthDate,
+        long version, Instant lastModified) {
+        this.id = id;
+        this.userName = userName;
+        this.name = name;
+        this.birthDate = birthDate;
+        this.version = version;
+        this.lastModified = lastModified;
+    }
+}
@@ -0,0 +1,9 @@
+package wolox.training.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.NOT_FOUND, reason = "Book import not found")
+public class BookImportNotFoundException extends RuntimeException {
+
+}
@@ -0,0 +1,9 @@
+package wolox.training.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "Too many book imports in progress, try again later")
+public class BookImportRejectedException extends RuntimeException {
+
+}
@@ -0,0 +1,9 @@
+package wolox.training.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Invalid sort key, direction or cursor")
+public class InvalidPageRequestException extends RuntimeException {
+
+}
@@ -0,0 +1,9 @@
+package wolox.training.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Page size must be between 1 and 100")
+public class InvalidPageSizeException extends RuntimeException {
+
+}
@@ -0,0 +1,12 @@
+package wolox.training.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_GATEWAY, reason = "OpenLibrary returned an invalid response")
+public class OpenLibraryInvalidResponseException extends RuntimeException {
+
+    public OpenLibraryInvalidResponseException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -1,34 +1,53 @@
 package wolox.training.models;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonProperty.Access;
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
-import java.util.ArrayList;
-import java.util.List;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.ManyToMany;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.NotNull;
 import lombok.AccessLevel;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
 import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import wolox.training.services.BookSearchIndexListener;
 
 @Entity
+@EntityListeners(BookSearchIndexListener.class)
 @Table(name = "books")
-@Data
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "books")
+@NaturalIdCache(region = "books-by-isbn")
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @ApiModel(description = "Books from the library")
 public class Book {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_generator")
-    @SequenceGenerator(name = "book_generator", sequenceName = "book_seq")
+    @SequenceGenerator(name = "book_generator", sequenceName = "book_seq", allocationSize = 50)
     @Setter(AccessLevel.PRIVATE)
     private long id;
 
@@ -72,12 +91,23 @@ public class Book {
 
     @NotNull
     @NonNull
+    @NaturalId(mutable = true)
     @ApiModelProperty(notes = "Unique identification number of the book")
     private String isbn;
 
+    @Version
+    @JsonProperty(access = Access.READ_ONLY)
+    @ApiModelProperty(notes = "Revision of the book, increased on every update")
+    private long version;
+
+    @JsonProperty(access = Access.READ_ONLY)
+    @ApiModelProperty(notes = "Time of the last update of the book")
+    private Instant lastModified;
+
     @JsonIgnore
+    @ToString.Exclude
     @ManyToMany(mappedBy = "books")
-    private List<User> user = new ArrayList<User>();
+    private Set<User> user = new HashSet<User>();
 
     public Book(long id, String bookTitle, String bookAuthor, String bookGenre, String bookImage,
         String bookSubtitle, String bookYear, String bookPublisher, String bookIsbn,
@@ -108,5 +138,29 @@ public class Book {
         setPages(bookPages);
     }
 
-    ;
+    @PrePersist
+    @PreUpdate
+    private void touch() {
+        lastModified = Instant.now();
+    }
+
+    /**
+     * Compares the isbn, which is unique and assigned before persist, so a new book keeps its
+     * identity once saved. The isbn is mutable: re-add a book to any hash set after changing it.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Book)) {
+            return false;
+        }
+        return isbn != null && isbn.equals(((Book) o).getIsbn());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(isbn);
+    }
 }
@@ -0,0 +1,26 @@
+package wolox.training.models;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Writes so far to a table, bumped by a database trigger in the same transaction as every
+ * statement that changes it, whichever code path issued it. Hibernate never sees those updates,
+ * so the counter must not be read through the second-level or query cache.
+ */
+@Entity
+@Immutable
+@Table(name = "change_counters")
+@Getter
+@NoArgsConstructor
+public class ChangeCounter {
+
+    @Id
+    private String tableName;
+
+    private long changes;
+}
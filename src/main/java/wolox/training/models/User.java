@@ -2,36 +2,46 @@ package wolox.training.models;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonProperty.Access;
+import java.time.Instant;
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
 import javax.persistence.CascadeType;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import javax.persistence.Version;
 import javax.validation.constraints.NotNull;
 import lombok.AccessLevel;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
 import lombok.Setter;
+import lombok.ToString;
 import wolox.training.exceptions.BookAlreadyOwnedException;
-import wolox.training.services.PasswordEncoderService;
 
 @Entity
 @Table(name = "users")
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 public class User {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_generator")
-    @SequenceGenerator(name = "user_generator", sequenceName = "user_seq")
+    @SequenceGenerator(name = "user_generator", sequenceName = "user_seq", allocationSize = 50)
     @Setter(AccessLevel.PRIVATE)
     private Long id;
 
@@ -42,6 +52,7 @@ public class User {
     @NotNull
     @NonNull
     @Setter(AccessLevel.NONE)
+    @ToString.Exclude
     @JsonProperty(access = Access.WRITE_ONLY)
     private String password;
 
@@ -52,8 +63,21 @@ public class User {
     @NotNull
     @NonNull
     private LocalDate birthDate;
+
+    @Version
+    @JsonProperty(access = Access.READ_ONLY)
+    private long version;
+
+    @JsonProperty(access = Access.READ_ONLY)
+    private Instant lastModified;
+
+    @ToString.Exclude
     @ManyToMany(cascade = {CascadeType.REFRESH, CascadeType.MERGE})
-    private List<Book> books = new ArrayList<Book>();
+    @JoinTable(name = "users_books",
+        joinColumns = @JoinColumn(name = "user_id"),
+        inverseJoinColumns = @JoinColumn(name = "books_id"),
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "books_id"}))
+    private Set<Book> books = new HashSet<Book>();
 
     public User(long id, String userName, String name, LocalDate birthDate) {
         this.id = id;
@@ -72,22 +96,47 @@ public class User {
         if (password == null || password.isEmpty()) {
             throw new NullPointerException("Password must not be null");
         } else {
-            this.password = PasswordEncoderService.encode(password);
+            this.password = password;
         }
     }
 
     public void addBook(Book book) {
-        if (books.contains(book)) {
+        if (!books.add(book)) {
             throw new BookAlreadyOwnedException();
         }
-        this.books.add(book);
     }
 
     public void deleteBook(Book book) {
         books.remove(book);
     }
 
-    public List<Book> getBooks() {
-        return (List<Book>) Collections.unmodifiableList(books);
+    public Set<Book> getBooks() {
+        return Collections.unmodifiableSet(books);
+    }
+
+    @PrePersist
+    @PreUpdate
+    private void touch() {
+        lastModified = Instant.now();
+    }
+
+    /**
+     * Compares the user name, which is unique and assigned before persist, so a new entity keeps its
+     * identity once saved.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof User)) {
+            return false;
+        }
+        return userName != null && userName.equals(((User) o).getUserName());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(userName);
     }
 }
@@ -0,0 +1,52 @@
+package wolox.training.monitoring;
+
+import java.util.List;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+/**
+ * Counts the JDBC executions issued by the current thread between {@link #start()} and
+ * {@link #stop()}, and the time spent in them. A batch counts once, as it is one round trip.
+ */
+public class SqlStatementCounter implements QueryExecutionListener {
+
+    private static final ThreadLocal<Count> COUNT = new ThreadLocal<>();
+
+    public static void start() {
+        COUNT.set(new Count());
+    }
+
+    public static void stop() {
+        COUNT.remove();
+    }
+
+    public static long statements() {
+        Count count = COUNT.get();
+        return count == null ? 0 : count.statements;
+    }
+
+    public static long elapsedMillis() {
+        Count count = COUNT.get();
+        return count == null ? 0 : count.elapsedMillis;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Count count = COUNT.get();
+        if (count != null) {
+            count.statements++;
+            count.elapsedMillis += execInfo.getElapsedTime();
+        }
+    }
+
+    private static class Count {
+
+        private long statements;
+        private long elapsedMillis;
+    }
+}
@@ -0,0 +1,32 @@
+package wolox.training.monitoring;
+
+import javax.sql.DataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps the data source the application uses in a proxy that reports its executions to
+ * {@link SqlStatementCounter}. Pools behind it, such as the primary when replicas are
+ * routed, are left alone so nothing is counted twice.
+ */
+@Component
+public class SqlStatementDataSourcePostProcessor implements BeanPostProcessor {
+
+    private static final String DATA_SOURCE = "dataSource";
+
+    private final SqlStatementCounter counter = new SqlStatementCounter();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (DATA_SOURCE.equals(beanName) && bean instanceof DataSource
+            && !(bean instanceof ProxyDataSource)) {
+            return ProxyDataSourceBuilder.create((DataSource) bean)
+                .name(beanName)
+                .listener(counter)
+                .build();
+        }
+        return bean;
+    }
+}
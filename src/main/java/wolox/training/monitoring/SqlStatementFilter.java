@@ -0,0 +1,100 @@
+package wolox.training.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Reports the SQL statements each request ran on its own thread: as response headers, as
+ * meters tagged by method and URI template, and as a warning past the configured threshold.
+ * It runs ahead of Spring Security so the login lookup is counted too. Work handed to other
+ * threads, such as password hashing, is not included.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class SqlStatementFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENTS_HEADER = "X-Sql-Statements";
+    public static final String TIME_HEADER = "X-Sql-Time-Ms";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SqlStatementFilter.class);
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${sqlTracking.warnThreshold}")
+    private long warnThreshold;
+
+    @Value("${sqlTracking.headers}")
+    private boolean headers;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+        FilterChain filterChain) throws ServletException, IOException {
+        SqlStatementCounter.start();
+        try {
+            filterChain.doFilter(request, headers ? new HeaderWritingResponse(response)
+                : response);
+            if (headers && !response.isCommitted()) {
+                writeHeaders(response);
+            }
+        } finally {
+            record(request);
+            SqlStatementCounter.stop();
+        }
+    }
+
+    private void writeHeaders(HttpServletResponse response) {
+        response.setHeader(STATEMENTS_HEADER, String.valueOf(SqlStatementCounter.statements()));
+        response.setHeader(TIME_HEADER, String.valueOf(SqlStatementCounter.elapsedMillis()));
+    }
+
+    private void record(HttpServletRequest request) {
+        long statements = SqlStatementCounter.statements();
+        long elapsedMillis = SqlStatementCounter.elapsedMillis();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        if (meterRegistry != null) {
+            Tags tags = Tags.of("method", request.getMethod(), "uri", uri);
+            DistributionSummary.builder("http.server.requests.sql.statements").tags(tags)
+                .register(meterRegistry).record(statements);
+            meterRegistry.timer("http.server.requests.sql.time", tags)
+                .record(elapsedMillis, TimeUnit.MILLISECONDS);
+        }
+        if (statements > warnThreshold) {
+            LOGGER.warn("{} {} ran {} SQL statements in {} ms", request.getMethod(),
+                request.getRequestURI(), statements, elapsedMillis);
+        }
+    }
+
+    /**
+     * Sets the headers just before the body commits the response, once the handler has run.
+     */
+    private class HeaderWritingResponse extends OnCommittedResponseWrapper {
+
+        HeaderWritingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            writeHeaders((HttpServletResponse) getResponse());
+        }
+    }
+}
@@ -2,25 +2,45 @@ package wolox.training.providers;
 
 import java.util.ArrayList;
 import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.AuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.stereotype.Component;
+import wolox.training.exceptions.PasswordHashingUnavailableException;
 import wolox.training.models.User;
 import wolox.training.repositories.UserRepository;
+import wolox.training.services.CredentialCacheService;
 import wolox.training.services.PasswordEncoderService;
+import wolox.training.services.PrimaryReadService;
+import wolox.training.services.UserService;
 
 @Component
 public class CustomAuthenticationProvider implements AuthenticationProvider {
 
+    private static final Logger LOGGER = LoggerFactory
+        .getLogger(CustomAuthenticationProvider.class);
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private PasswordEncoderService passwordEncoderService;
 
+    @Autowired
+    private CredentialCacheService credentialCacheService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PrimaryReadService primaryReadService;
 
     @Override
     public Authentication authenticate(Authentication authentication)
@@ -28,16 +48,57 @@ public class CustomAuthenticationProvider implements AuthenticationProvider {
 
         String name = authentication.getName();
         String password = authentication.getCredentials().toString();
-        Optional<User> user = userRepository.findByUserName(name);
+        if (credentialCacheService.verifiedUserId(name, password).isPresent()) {
+            return new UsernamePasswordAuthenticationToken(name, password, new ArrayList<>());
+        }
+        long ticket = credentialCacheService.ticket();
+        Optional<User> user = primaryReadService.read(() -> userRepository.findByUserName(name));
 
-        if (user.isPresent() && passwordEncoderService
-            .matches(password, user.get().getPassword())) {
+        if (user.isPresent() && matches(password, user.get().getPassword())) {
+            if (passwordEncoderService.upgradeEncoding(user.get().getPassword())) {
+                upgradePassword(user.get(), password);
+            }
+            credentialCacheService.remember(name, password, user.get().getId(), ticket);
             return new UsernamePasswordAuthenticationToken(name, password, new ArrayList<>());
         } else {
             return null;
         }
     }
 
+    /**
+     * A saturated hashing pool fails the login with an {@link AuthenticationServiceException},
+     * which the entry point answers with 503, whether it rejects the task right away or fails
+     * the pending verification later.
+     */
+    private boolean matches(String password, String encodedPassword) {
+        try {
+            return passwordEncoderService.matchesAsync(password, encodedPassword).join();
+        } catch (PasswordHashingUnavailableException e) {
+            throw saturated(e);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                throw saturated(e.getCause());
+            }
+            throw e;
+        }
+    }
+
+    private static AuthenticationServiceException saturated(Throwable cause) {
+        return new AuthenticationServiceException("Password verification is saturated", cause);
+    }
+
+    private void upgradePassword(User user, String password) {
+        try {
+            userService.updateUserPassword(user, password).whenComplete((updated, e) -> {
+                if (e != null) {
+                    LOGGER.warn("Could not upgrade the password hash of user {}", user.getId(), e);
+                }
+            });
+        } catch (PasswordHashingUnavailableException e) {
+            // The hash stays outdated until a later login finds spare hashing capacity
+        }
+    }
+
     @Override
     public boolean supports(Class<?> authentication) {
         return authentication.equals(UsernamePasswordAuthenticationToken.class);
@@ -0,0 +1,22 @@
+package wolox.training.repositories;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+import wolox.training.models.Book;
+
+public interface BookRepositoryCustom {
+
+    Optional<Book> findByIsbn(String isbn);
+
+    int updateBook(Long id, Book changes, Instant now);
+
+    /**
+     * Only updates the book while its version is one of {@code versions}, so a stale If-Match
+     * shows up as zero affected rows instead of a prior read.
+     */
+    int updateBook(Long id, Book changes, Collection<Long> versions, Instant now);
+
+    int deleteBookById(Long id);
+
+}
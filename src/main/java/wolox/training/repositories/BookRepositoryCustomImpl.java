@@ -0,0 +1,150 @@
+package wolox.training.repositories;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.cache.spi.access.CachedDomainDataAccess;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.NaturalIdDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.cache.spi.entry.CacheEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.InstantType;
+import org.hibernate.type.IntegerType;
+import org.hibernate.type.StringType;
+import org.springframework.transaction.annotation.Transactional;
+import wolox.training.models.Book;
+
+/**
+ * Writes are native statements synchronized on {@code book_writes}, a space no entity maps to,
+ * because after a JPQL bulk statement Hibernate empties the whole books and books-by-isbn
+ * regions. Instead only the written book's entries are soft-locked, as an entity update would
+ * do, which keeps other transactions from caching the old row, and unlocked once the
+ * transaction completes. Queries over the books table are invalidated through its timestamps.
+ */
+public class BookRepositoryCustomImpl implements BookRepositoryCustom {
+
+    private static final String BOOK_WRITES = "book_writes";
+    private static final String ISBN = "isbn";
+    private static final String[] BOOKS = {"books"};
+    private static final String[] BOOKS_AND_COLLECTIONS = {"books", "users_books"};
+    private static final String UPDATE_BOOK = "UPDATE books SET genre = :genre,"
+        + " author = :author, image = :image, title = :title, subtitle = :subtitle,"
+        + " publisher = :publisher, year = :year, pages = :pages, isbn = :isbn,"
+        + " version = version + 1, last_modified = :now WHERE id = :id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Resolved through the natural-id cache, so a warm ISBN lookup never reaches the database.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Book> findByIsbn(String isbn) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(Book.class)
+            .loadOptional(isbn);
+    }
+
+    @Override
+    @Transactional
+    public int updateBook(Long id, Book changes, Instant now) {
+        return update(id, changes, null, now);
+    }
+
+    @Override
+    @Transactional
+    public int updateBook(Long id, Book changes, Collection<Long> versions, Instant now) {
+        return update(id, changes, versions, now);
+    }
+
+    @Override
+    @Transactional
+    public int deleteBookById(Long id) {
+        NativeQuery<?> statement = entityManager.unwrap(Session.class)
+            .createNativeQuery("DELETE FROM books WHERE id = :id")
+            .setParameter("id", id);
+        return write(id, null, BOOKS_AND_COLLECTIONS, statement);
+    }
+
+    private int update(Long id, Book changes, Collection<Long> versions, Instant now) {
+        NativeQuery<?> statement = entityManager.unwrap(Session.class)
+            .createNativeQuery(versions == null ? UPDATE_BOOK
+                : UPDATE_BOOK + " AND version IN (:versions)")
+            .setParameter("genre", changes.getGenre(), StringType.INSTANCE)
+            .setParameter("author", changes.getAuthor(), StringType.INSTANCE)
+            .setParameter("image", changes.getImage(), StringType.INSTANCE)
+            .setParameter("title", changes.getTitle(), StringType.INSTANCE)
+            .setParameter("subtitle", changes.getSubtitle(), StringType.INSTANCE)
+            .setParameter("publisher", changes.getPublisher(), StringType.INSTANCE)
+            .setParameter("year", changes.getYear(), StringType.INSTANCE)
+            .setParameter("pages", changes.getPages(), IntegerType.INSTANCE)
+            .setParameter("isbn", changes.getIsbn(), StringType.INSTANCE)
+            .setParameter("now", now, InstantType.INSTANCE)
+            .setParameter("id", id);
+        if (versions != null) {
+            statement.setParameterList("versions", versions);
+        }
+        return write(id, changes.getIsbn(), BOOKS, statement);
+    }
+
+    /**
+     * The old ISBN is read from the cached book; when that is gone too, the natural-id region
+     * is emptied instead, since an entry for the old ISBN would still resolve to this book. Each
+     * key is locked once: a second lock on the same key would mark it as concurrently written
+     * and refuse puts to it until the lock times out.
+     */
+    private int write(Long id, String newIsbn, String[] spaces, NativeQuery<?> statement) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel()
+            .entityPersister(Book.class);
+        EntityDataAccess books = persister.getCacheAccessStrategy();
+        NaturalIdDataAccess isbns = persister.getNaturalIdCacheAccessStrategy();
+        TimestampsCache timestamps = session.getFactory().getCache().getTimestampsCache();
+
+        List<Consumer<SharedSessionContractImplementor>> releases = new ArrayList<>();
+        Object bookKey = books.generateCacheKey(id, persister, session.getFactory(),
+            session.getTenantIdentifier());
+        CacheEntry cached = (CacheEntry) books.get(session, bookKey);
+        releases.add(lock(session, books, bookKey));
+        Set<Object> writtenIsbns = new LinkedHashSet<>();
+        if (cached == null) {
+            SoftLock regionLock = isbns.lockRegion();
+            isbns.removeAll(session);
+            releases.add(completed -> isbns.unlockRegion(regionLock));
+        } else {
+            writtenIsbns.add(cached.getDisassembledState()[
+                persister.getEntityMetamodel().getPropertyIndex(ISBN)]);
+        }
+        if (newIsbn != null) {
+            writtenIsbns.add(newIsbn);
+        }
+        for (Object isbn : writtenIsbns) {
+            releases.add(lock(session, isbns,
+                isbns.generateCacheKey(new Object[]{isbn}, persister, session)));
+        }
+        timestamps.preInvalidate(spaces, session);
+        releases.add(completed -> timestamps.invalidate(spaces, completed));
+        session.getActionQueue().registerProcess(
+            (success, completed) -> releases.forEach(release -> release.accept(completed)));
+        return statement.addSynchronizedQuerySpace(BOOK_WRITES).executeUpdate();
+    }
+
+    private static Consumer<SharedSessionContractImplementor> lock(SessionImplementor session,
+        CachedDomainDataAccess region, Object key) {
+        SoftLock lock = region.lockItem(session, key, null);
+        return completed -> region.unlockItem(completed, key, lock);
+    }
+}
@@ -0,0 +1,40 @@
+package wolox.training.repositories;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+import wolox.training.models.Book;
+
+public final class BookSpecifications {
+
+    private BookSpecifications() {
+    }
+
+    public static Specification<Book> withFilter(String genre, String author, String image,
+        String title, String subtitle, String publisher, String year, Integer pages,
+        String isbn) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            equalIfPresent(predicates, criteriaBuilder, root, "genre", genre);
+            equalIfPresent(predicates, criteriaBuilder, root, "author", author);
+            equalIfPresent(predicates, criteriaBuilder, root, "image", image);
+            equalIfPresent(predicates, criteriaBuilder, root, "title", title);
+            equalIfPresent(predicates, criteriaBuilder, root, "subtitle", subtitle);
+            equalIfPresent(predicates, criteriaBuilder, root, "publisher", publisher);
+            equalIfPresent(predicates, criteriaBuilder, root, "year", year);
+            equalIfPresent(predicates, criteriaBuilder, root, "pages", pages);
+            equalIfPresent(predicates, criteriaBuilder, root, "isbn", isbn);
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    private static void equalIfPresent(List<Predicate> predicates,
+        CriteriaBuilder criteriaBuilder, Root<Book> root, String attribute, Object value) {
+        if (value != null) {
+            predicates.add(criteriaBuilder.equal(root.get(attribute), value));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package wolox.training.repositories;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Locale;
+import org.h2.api.Trigger;
+
+/**
+ * H2 counterpart of the {@code count_change()} PostgreSQL trigger function, used by the test and
+ * load-test databases. Rows of {@code users_books} count as changes to {@code users}.
+ */
+public class ChangeCounterTrigger implements Trigger {
+
+    private String counter;
+
+    @Override
+    public void init(Connection connection, String schemaName, String triggerName,
+        String tableName, boolean before, int type) {
+        String table = tableName.toLowerCase(Locale.ROOT);
+        counter = "users_books".equals(table) ? "users" : table;
+    }
+
+    @Override
+    public void fire(Connection connection, Object[] oldRow, Object[] newRow)
+        throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+            "UPDATE change_counters SET changes = changes + 1 WHERE table_name = ?")) {
+            statement.setString(1, counter);
+            statement.executeUpdate();
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void remove() {
+    }
+}
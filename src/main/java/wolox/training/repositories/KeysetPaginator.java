@@ -0,0 +1,166 @@
+package wolox.training.repositories;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import wolox.training.dto.KeysetPage;
+import wolox.training.exceptions.InvalidPageRequestException;
+import wolox.training.exceptions.InvalidPageSizeException;
+
+/**
+ * Seek pagination over {@code (sortKey, id)}: each page continues after the last row of the
+ * previous one instead of skipping an OFFSET, and the total is only counted on request. Rows
+ * are read into constructor DTOs, which must expose the sort keys as properties.
+ */
+@Component
+public class KeysetPaginator {
+
+    private static final String ID = "id";
+    private static final String SEPARATOR = "\n";
+    private static final int MAX_SIZE = 100;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public <T, R> KeysetPage<R> find(Class<T> type, Class<R> projection,
+        List<String> attributes, Specification<T> specification, Set<String> sortKeys,
+        String sortKey, String sortDirection, String cursor, int size, boolean withCount) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new InvalidPageSizeException();
+        }
+        if (!sortKeys.contains(sortKey)) {
+            throw new InvalidPageRequestException();
+        }
+        Direction direction = Direction.fromOptionalString(sortDirection)
+            .orElseThrow(InvalidPageRequestException::new);
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<R> query = criteriaBuilder.createQuery(projection);
+        Root<T> root = query.from(type);
+        query.select(criteriaBuilder
+            .construct(projection, ProjectionPaginator.selections(root, attributes)));
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate filter = specification.toPredicate(root, query, criteriaBuilder);
+        if (filter != null) {
+            predicates.add(filter);
+        }
+        if (cursor != null && !cursor.isEmpty()) {
+            predicates.add(after(criteriaBuilder, root, sortKey, direction, cursor));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(order(criteriaBuilder, root.get(sortKey), direction),
+            order(criteriaBuilder, root.get(ID), direction));
+        List<R> rows = entityManager.createQuery(query).setMaxResults(size + 1).getResultList();
+
+        boolean hasNext = rows.size() > size;
+        List<R> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? encode(sortKey, content.get(size - 1)) : null;
+        Long total = withCount ? count(type, specification) : null;
+        return new KeysetPage<>(content, nextCursor, total);
+    }
+
+    private <T> long count(Class<T> type, Specification<T> specification) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<T> root = query.from(type);
+        query.select(criteriaBuilder.count(root));
+        Predicate filter = specification.toPredicate(root, query, criteriaBuilder);
+        if (filter != null) {
+            query.where(filter);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private <T> Predicate after(CriteriaBuilder criteriaBuilder, Root<T> root, String sortKey,
+        Direction direction, String cursor) {
+        String[] position = decode(cursor);
+        if (!sortKey.equals(position[0])) {
+            throw new InvalidPageRequestException();
+        }
+        Path<Comparable<Object>> id = root.get(ID);
+        Comparable<Object> lastId = parse(id, position[2]);
+        if (ID.equals(sortKey)) {
+            return beyond(criteriaBuilder, id, lastId, direction);
+        }
+        Path<Comparable<Object>> sort = root.get(sortKey);
+        Comparable<Object> lastValue = parse(sort, position[1]);
+        return criteriaBuilder.or(beyond(criteriaBuilder, sort, lastValue, direction),
+            criteriaBuilder.and(criteriaBuilder.equal(sort, lastValue),
+                beyond(criteriaBuilder, id, lastId, direction)));
+    }
+
+    private Predicate beyond(CriteriaBuilder criteriaBuilder,
+        Expression<Comparable<Object>> path, Comparable<Object> value, Direction direction) {
+        return direction.isAscending() ? criteriaBuilder.greaterThan(path, value)
+            : criteriaBuilder.lessThan(path, value);
+    }
+
+    private Order order(CriteriaBuilder criteriaBuilder, Path<?> path, Direction direction) {
+        return direction.isAscending() ? criteriaBuilder.asc(path) : criteriaBuilder.desc(path);
+    }
+
+    private String encode(String sortKey, Object last) {
+        Object sortValue = PropertyAccessorFactory.forBeanPropertyAccess(last)
+            .getPropertyValue(sortKey);
+        Object id = PropertyAccessorFactory.forBeanPropertyAccess(last).getPropertyValue(ID);
+        String position = sortKey + SEPARATOR + sortValue + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decode(String cursor) {
+        String position;
+        try {
+            position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPageRequestException();
+        }
+        int first = position.indexOf(SEPARATOR);
+        int last = position.lastIndexOf(SEPARATOR);
+        if (first < 0 || first == last) {
+            throw new InvalidPageRequestException();
+        }
+        return new String[]{position.substring(0, first), position.substring(first + 1, last),
+            position.substring(last + 1)};
+    }
+
+    @SuppressWarnings("unchecked")
+    private Comparable<Object> parse(Path<?> path, String value) {
+        Class<?> type = path.getJavaType();
+        try {
+            if (type == String.class) {
+                return (Comparable<Object>) (Comparable<?>) value;
+            }
+            if (type == Integer.class || type == int.class) {
+                return (Comparable<Object>) (Comparable<?>) Integer.valueOf(value);
+            }
+            if (type == Long.class || type == long.class) {
+                return (Comparable<Object>) (Comparable<?>) Long.valueOf(value);
+            }
+            if (type == LocalDate.class) {
+                return (Comparable<Object>) (Comparable<?>) LocalDate.parse(value);
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new InvalidPageRequestException();
+        }
+        throw new InvalidPageRequestException();
+    }
+}
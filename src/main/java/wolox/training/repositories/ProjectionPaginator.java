@@ -0,0 +1,71 @@
+package wolox.training.repositories;
+
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Offset pagination that selects only the given attributes into a constructor DTO. Rows are
+ * never attached to the persistence context, and the read-only transaction runs with
+ * {@code FlushMode.MANUAL}, so nothing is snapshotted or dirty-checked.
+ */
+@Component
+public class ProjectionPaginator {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public <T, R> Page<R> find(Class<T> type, Class<R> projection, List<String> attributes,
+        Specification<T> specification, Pageable pageable) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<R> query = criteriaBuilder.createQuery(projection);
+        Root<T> root = query.from(type);
+        query.select(criteriaBuilder.construct(projection, selections(root, attributes)));
+        Predicate filter = specification.toPredicate(root, query, criteriaBuilder);
+        if (filter != null) {
+            query.where(filter);
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, criteriaBuilder));
+        }
+        TypedQuery<R> typedQuery = entityManager.createQuery(query);
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(typedQuery.getResultList());
+        }
+        List<R> content = typedQuery.setFirstResult((int) pageable.getOffset())
+            .setMaxResults(pageable.getPageSize()).getResultList();
+        return PageableExecutionUtils
+            .getPage(content, pageable, () -> count(type, specification));
+    }
+
+    static Selection<?>[] selections(Root<?> root, List<String> attributes) {
+        return attributes.stream().map(root::get).toArray(Selection<?>[]::new);
+    }
+
+    private <T> long count(Class<T> type, Specification<T> specification) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<T> root = query.from(type);
+        query.select(criteriaBuilder.count(root));
+        Predicate filter = specification.toPredicate(root, query, criteriaBuilder);
+        if (filter != null) {
+            query.where(filter);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
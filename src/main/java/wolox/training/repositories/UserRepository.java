@@ -1,36 +1,120 @@
 package wolox.training.repositories;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import java.util.stream.Collectors;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import wolox.training.dto.BookSummary;
+import wolox.training.dto.ResourceVersion;
+import wolox.training.dto.UserSummary;
 import wolox.training.models.User;
 
-public interface UserRepository extends CrudRepository<User, Long> {
+public interface UserRepository extends CrudRepository<User, Long>,
+    JpaSpecificationExecutor<User>, UserRepositoryCustom {
+
+    String UPDATE_USER = "UPDATE User u SET u.userName = :#{#changes.userName},"
+        + " u.name = :#{#changes.name}, u.birthDate = :#{#changes.birthDate},"
+        + " u.version = u.version + 1, u.lastModified = :now WHERE u.id = :id";
 
     Optional<User> findByUserName(String userName);
 
-    @Query(
-        "SELECT u FROM User u WHERE (u.birthDate BETWEEN :startDate AND :endDate) AND"
-            + "(:name = '' OR lower(u.name) LIKE lower(concat('%', :name,'%')) )")
-    List<User> findByBirthDateBetweenAndNameContaining(
+    @EntityGraph(attributePaths = "books")
+    Optional<User> findWithBooksById(Long id);
+
+    @Query("SELECT new wolox.training.dto.ResourceVersion(u.version, u.lastModified,"
+        + " COALESCE(SUM(b.version), 0), MAX(b.lastModified)) FROM User u LEFT JOIN u.books b"
+        + " WHERE u.id = :id GROUP BY u.id, u.version, u.lastModified")
+    Optional<ResourceVersion> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT new wolox.training.dto.ResourceVersion(c.changes) FROM ChangeCounter c"
+        + " WHERE c.tableName = 'users'")
+    ResourceVersion findDirectoryVersion();
+
+    /**
+     * Hibernate clears the users_books rows with its own DELETE before deleting the user, since
+     * a bulk delete cannot rely on the ON DELETE CASCADE foreign key being there.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.id = :id")
+    int deleteUserById(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query(UPDATE_USER)
+    int updateUser(@Param("id") Long id, @Param("changes") User changes,
+        @Param("now") Instant now);
+
+    /**
+     * Only updates the user while its version is one of {@code versions}, so a stale If-Match
+     * shows up as zero affected rows instead of a prior read.
+     */
+    @Transactional
+    @Modifying
+    @Query(UPDATE_USER + " AND u.version IN :versions")
+    int updateUser(@Param("id") Long id, @Param("changes") User changes,
+        @Param("versions") Collection<Long> versions, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password, u.version = u.version + 1,"
+        + " u.lastModified = :now WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password,
+        @Param("now") Instant now);
+
+    @Query("SELECT new wolox.training.dto.UserSummary(u.id, u.userName, u.name, u.birthDate,"
+        + " u.version, u.lastModified) FROM User u"
+        + " WHERE u.birthDate BETWEEN :startDate AND :endDate")
+    List<UserSummary> findSummariesByBirthDateBetween(@Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate);
+
+    /**
+     * The {@code lower(u.name) LIKE} predicate matches the trigram index on
+     * {@code lower(name)} in PostgreSQL, so it must not be wrapped in an OR.
+     */
+    @Query("SELECT new wolox.training.dto.UserSummary(u.id, u.userName, u.name, u.birthDate,"
+        + " u.version, u.lastModified) FROM User u"
+        + " WHERE u.birthDate BETWEEN :startDate AND :endDate"
+        + " AND lower(u.name) LIKE lower(concat('%', :name, '%'))")
+    List<UserSummary> findSummariesByBirthDateBetweenAndNameContaining(
         @Param("startDate") LocalDate startDate,
         @Param("endDate") LocalDate endDate,
         @Param("name") String name);
 
-    @Query(
-        "SELECT u FROM User u WHERE (:id IS NULL OR u.id = :id) AND "
-            + "(:userName IS NULL OR u.userName = :userName) AND "
-            + "(:name IS NULL OR u.name = :name) AND"
-            + "(CAST(:birthDate AS date) IS NULL OR u.birthDate = :birthDate)")
-    Page<User> findAllByFilter(
-        @Param("id") Long id,
-        @Param("userName") String userName,
-        @Param("name") String name,
-        @Param("birthDate") LocalDate birthDate,
-        Pageable pageable);
-}
\ No newline at end of file
+    @Query("SELECT new wolox.training.dto.BookSummary(u.id, b.id, b.genre, b.author, b.image,"
+        + " b.title, b.subtitle, b.publisher, b.year, b.pages, b.isbn, b.version,"
+        + " b.lastModified) FROM User u JOIN u.books b WHERE u.id IN :ids ORDER BY b.id")
+    List<BookSummary> findBookSummariesByUserIdIn(@Param("ids") Collection<Long> ids);
+
+    default List<UserSummary> searchByBirthDateAndName(LocalDate startDate, LocalDate endDate,
+        String name) {
+        return withBooks(name.isEmpty() ? findSummariesByBirthDateBetween(startDate, endDate)
+            : findSummariesByBirthDateBetweenAndNameContaining(startDate, endDate, name));
+    }
+
+    /**
+     * Fills in the books of a page of users with one query over the join table. Joining the
+     * collection in the paged query itself would repeat every user once per book.
+     */
+    default List<UserSummary> withBooks(List<UserSummary> users) {
+        if (!users.isEmpty()) {
+            Map<Long, List<BookSummary>> books = findBookSummariesByUserIdIn(
+                users.stream().map(UserSummary::getId).collect(Collectors.toList())).stream()
+                .collect(Collectors.groupingBy(BookSummary::getOwnerId));
+            users.forEach(user -> user
+                .setBooks(books.getOrDefault(user.getId(), Collections.emptyList())));
+        }
+        return users;
+    }
+}
@@ -0,0 +1,9 @@
+package wolox.training.repositories;
+
+public interface UserRepositoryCustom {
+
+    int addBook(Long userId, Long bookId);
+
+    int removeBook(Long userId, Long bookId);
+
+}
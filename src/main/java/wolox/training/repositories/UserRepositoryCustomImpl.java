@@ -0,0 +1,51 @@
+package wolox.training.repositories;
+
+import java.time.Instant;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Native statements invalidate every second-level cache region unless they name the tables they
+ * touch, so these declare {@code users_books} to keep the book cache warm. Changing the
+ * collection also bumps the user's version so its ETag changes. Both return the rows changed in
+ * the join table, which is zero when the user, the book or the pair is missing.
+ */
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final String USERS_BOOKS = "users_books";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int addBook(Long userId, Long bookId) {
+        return execute("INSERT INTO users_books (user_id, books_id) SELECT u.id, b.id"
+            + " FROM users u, books b WHERE u.id = :userId AND b.id = :bookId", userId, bookId);
+    }
+
+    @Override
+    @Transactional
+    public int removeBook(Long userId, Long bookId) {
+        return execute("DELETE FROM users_books WHERE user_id = :userId AND books_id = :bookId",
+            userId, bookId);
+    }
+
+    private int execute(String sql, Long userId, Long bookId) {
+        int changed = entityManager.unwrap(Session.class).createNativeQuery(sql)
+            .addSynchronizedQuerySpace(USERS_BOOKS)
+            .setParameter("userId", userId)
+            .setParameter("bookId", bookId)
+            .executeUpdate();
+        if (changed > 0) {
+            entityManager.createQuery("UPDATE User u SET u.version = u.version + 1,"
+                + " u.lastModified = :now WHERE u.id = :userId")
+                .setParameter("now", Instant.now())
+                .setParameter("userId", userId)
+                .executeUpdate();
+        }
+        return changed;
+    }
+}
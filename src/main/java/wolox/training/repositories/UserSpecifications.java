@@ -0,0 +1,35 @@
+package wolox.training.repositories;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+import wolox.training.models.User;
+
+public final class UserSpecifications {
+
+    private UserSpecifications() {
+    }
+
+    public static Specification<User> withFilter(Long id, String userName, String name,
+        LocalDate birthDate) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            equalIfPresent(predicates, criteriaBuilder, root, "id", id);
+            equalIfPresent(predicates, criteriaBuilder, root, "userName", userName);
+            equalIfPresent(predicates, criteriaBuilder, root, "name", name);
+            equalIfPresent(predicates, criteriaBuilder, root, "birthDate", birthDate);
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    private static void equalIfPresent(List<Predicate> predicates,
+        CriteriaBuilder criteriaBuilder, Root<User> root, String attribute, Object value) {
+        if (value != null) {
+            predicates.add(criteriaBuilder.equal(root.get(attribute), value));
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package wolox.training.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import wolox.training.clients.OpenLibraryClient;
+import wolox.training.dto.BookImportStatus;
+import wolox.training.dto.BookImportStatus.State;
+import wolox.training.dto.OpenLibraryBook;
+import wolox.training.exceptions.BookImportRejectedException;
+import wolox.training.models.Book;
+import wolox.training.repositories.BookRepository;
+
+@Service
+public class BookImportService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BookImportService.class);
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private OpenLibraryClient openLibraryClient;
+
+    @Autowired
+    private OpenLibraryService openLibraryService;
+
+    @Autowired
+    private ThreadPoolTaskExecutor bookImportExecutor;
+
+    @Value("${openLibrary.import.batchSize}")
+    private int batchSize;
+
+    private final Cache<String, BookImportStatus> imports = Caffeine.newBuilder()
+        .maximumSize(1000)
+        .expireAfterWrite(Duration.ofDays(1))
+        .build();
+
+    public BookImportStatus start(Collection<String> isbns) {
+        List<String> pending = isbns.stream().filter(Objects::nonNull)
+            .map(OpenLibraryClient::normalizeIsbn).distinct().collect(Collectors.toList());
+        BookImportStatus status = new BookImportStatus(UUID.randomUUID().toString(),
+            pending.size());
+        imports.put(status.getId(), status);
+        try {
+            bookImportExecutor.execute(() -> run(status, pending));
+        } catch (TaskRejectedException e) {
+            imports.invalidate(status.getId());
+            throw new BookImportRejectedException();
+        }
+        return status;
+    }
+
+    public Optional<BookImportStatus> status(String id) {
+        return Optional.ofNullable(imports.getIfPresent(id));
+    }
+
+    private void run(BookImportStatus status, List<String> isbns) {
+        status.setState(State.RUNNING);
+        try {
+            List<String> valid = new ArrayList<>();
+            for (String isbn : isbns) {
+                if (OpenLibraryClient.isIsbn(isbn)) {
+                    valid.add(isbn);
+                } else {
+                    status.fail(isbn, "Invalid ISBN");
+                    status.getProcessed().incrementAndGet();
+                }
+            }
+            for (int from = 0; from < valid.size(); from += batchSize) {
+                importBatch(status, valid.subList(from, Math.min(from + batchSize, valid.size())));
+            }
+            status.setState(State.COMPLETED);
+        } catch (RuntimeException e) {
+            LOGGER.error("Book import {} failed", status.getId(), e);
+            status.setState(State.FAILED);
+        }
+    }
+
+    private void importBatch(BookImportStatus status, List<String> batch) {
+        Set<String> existing = bookRepository.findExistingIsbns(batch);
+        List<String> missing = new ArrayList<>(batch);
+        missing.removeAll(existing);
+        status.getSkipped().addAndGet(existing.size());
+        if (!missing.isEmpty()) {
+            Map<String, OpenLibraryBook> found;
+            try {
+                found = openLibraryClient.fetchBooks(missing);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Book import {} batch lookup failed", status.getId(), e);
+                missing.forEach(isbn -> status.fail(isbn, e.getClass().getSimpleName()));
+                found = Collections.emptyMap();
+            }
+            Map<String, OpenLibraryBook> books = new LinkedHashMap<>();
+            for (String isbn : missing) {
+                OpenLibraryBook openLibraryBook = found.get(isbn);
+                if (openLibraryBook != null) {
+                    books.put(isbn, openLibraryBook);
+                } else if (!status.getFailures().containsKey(isbn)) {
+                    status.fail(isbn, "Not found in OpenLibrary");
+                }
+            }
+            save(status, books);
+        }
+        status.getProcessed().addAndGet(batch.size());
+    }
+
+    /**
+     * Saves the batch in one transaction and, if that fails, falls back to one transaction per
+     * book so that a single bad row only fails itself. The fallback builds fresh entities, since
+     * the rolled back ones already carry ids.
+     */
+    private void save(BookImportStatus status, Map<String, OpenLibraryBook> books) {
+        if (books.isEmpty()) {
+            return;
+        }
+        try {
+            bookRepository.saveAll(books.values().stream().map(openLibraryService::toBook)
+                .collect(Collectors.toList()));
+            status.getImported().addAndGet(books.size());
+            return;
+        } catch (RuntimeException e) {
+            LOGGER.warn("Book import {} batch save failed, saving one by one", status.getId(), e);
+        }
+        books.forEach((isbn, book) -> {
+            try {
+                bookRepository.save(openLibraryService.toBook(book));
+                status.getImported().incrementAndGet();
+            } catch (RuntimeException e) {
+                status.fail(isbn, e.getClass().getSimpleName());
+            }
+        });
+    }
+}
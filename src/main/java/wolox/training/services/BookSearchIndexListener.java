@@ -0,0 +1,49 @@
+package wolox.training.services;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import wolox.training.models.Book;
+
+/**
+ * Mirrors book writes into {@link BookSearchService} once the surrounding transaction commits,
+ * so rolled back changes never become searchable.
+ */
+@Component
+public class BookSearchIndexListener {
+
+    @Lazy
+    @Autowired
+    private BookSearchService bookSearchService;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Book book) {
+        afterCommit(() -> bookSearchService.index(book));
+    }
+
+    @PostRemove
+    public void onRemove(Book book) {
+        long id = book.getId();
+        afterCommit(() -> bookSearchService.remove(id));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager
+            .registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+    }
+}
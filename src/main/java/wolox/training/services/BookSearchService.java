@@ -0,0 +1,369 @@
+package wolox.training.services;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import wolox.training.dto.BookSearchResult;
+import wolox.training.models.Book;
+import wolox.training.repositories.BookRepository;
+
+/**
+ * In-process inverted index over the words of title, subtitle, author and publisher. It is
+ * loaded once the application is ready and kept current by {@link BookSearchIndexListener}.
+ */
+@Service
+public class BookSearchService {
+
+    private static final int EXACT_SCORE = 3;
+    private static final int PREFIX_SCORE = 2;
+    private static final int FUZZY_SCORE = 1;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PrimaryReadService primaryReadService;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Index index = new Index();
+
+    private List<Consumer<Index>> pending;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        write(() -> pending = new ArrayList<>());
+        try {
+            Index rebuilt = new Index();
+            primaryReadService.read(() -> {
+                bookRepository.findAll().forEach(book -> rebuilt.add(copyOf(book)));
+                return rebuilt;
+            });
+            write(() -> {
+                pending.forEach(update -> update.accept(rebuilt));
+                index = rebuilt;
+            });
+        } finally {
+            write(() -> pending = null);
+        }
+    }
+
+    public void index(Book book) {
+        Book copy = copyOf(book);
+        apply(current -> current.add(copy));
+    }
+
+    public void remove(long id) {
+        apply(current -> current.remove(id));
+    }
+
+    /**
+     * A query without any words browses by facet alone: the books come from the facet postings
+     * of the selected values rather than from a walk over the catalog.
+     */
+    public BookSearchResult search(String query, String genre, String year, String publisher,
+        int size) {
+        Set<String> tokens = tokenize(query);
+        lock.readLock().lock();
+        try {
+            if (tokens.isEmpty()) {
+                return index.browse(genre, year, publisher, size);
+            }
+            return index.search(tokens, genre, year, publisher, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Consumer<Index> update) {
+        write(() -> {
+            update.accept(index);
+            if (pending != null) {
+                pending.add(update);
+            }
+        });
+    }
+
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static Book copyOf(Book book) {
+        Book copy = new Book(book.getId(), book.getTitle(), book.getAuthor(), book.getGenre(),
+            book.getImage(), book.getSubtitle(), book.getYear(), book.getPublisher(),
+            book.getIsbn(), book.getPages());
+        copy.setVersion(book.getVersion());
+        copy.setLastModified(book.getLastModified());
+        return copy;
+    }
+
+    private static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+            .replaceAll("").toLowerCase(Locale.ROOT);
+        for (String token : SEPARATORS.split(normalized)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * The term itself plus every single-character deletion: two terms within one edit share at
+     * least one of these keys, so typo candidates are found without scanning the vocabulary.
+     */
+    private static Set<String> deletionKeys(String term) {
+        Set<String> keys = new HashSet<>();
+        if (term.length() < MIN_FUZZY_LENGTH - 1) {
+            return keys;
+        }
+        keys.add(term);
+        for (int i = 0; i < term.length(); i++) {
+            keys.add(term.substring(0, i) + term.substring(i + 1));
+        }
+        return keys;
+    }
+
+    private static boolean withinOneEdit(String a, String b) {
+        int[][] distance = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            distance[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            distance[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                distance[i][j] = Math.min(Math.min(distance[i - 1][j] + 1,
+                    distance[i][j - 1] + 1), distance[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2)
+                    && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    distance[i][j] = Math.min(distance[i][j], distance[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return distance[a.length()][b.length()] <= 1;
+    }
+
+    private static boolean matchesFacet(String value, String filter) {
+        return filter == null || filter.equalsIgnoreCase(value);
+    }
+
+    private static String facetKey(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static Map<String, Map<String, Long>> facets(List<Book> found) {
+        Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+        facets.put("genre", count(found, Book::getGenre));
+        facets.put("year", count(found, Book::getYear));
+        facets.put("publisher", count(found, Book::getPublisher));
+        return facets;
+    }
+
+    private static Map<String, Long> count(List<Book> found, Function<Book, String> facet) {
+        return found.stream().map(facet).filter(Objects::nonNull)
+            .collect(Collectors.groupingBy(value -> value, TreeMap::new, Collectors.counting()));
+    }
+
+    private static class Index {
+
+        private final Map<Long, Book> books = new HashMap<>();
+        private final Map<Long, Set<String>> termsByBook = new HashMap<>();
+        private final NavigableMap<String, Set<Long>> postings = new TreeMap<>();
+        private final Map<String, Set<String>> deletions = new HashMap<>();
+        private final Map<String, Set<Long>> genres = new HashMap<>();
+        private final Map<String, Set<Long>> years = new HashMap<>();
+        private final Map<String, Set<Long>> publishers = new HashMap<>();
+
+        void add(Book book) {
+            remove(book.getId());
+            Set<String> terms = new HashSet<>();
+            terms.addAll(tokenize(book.getTitle()));
+            terms.addAll(tokenize(book.getSubtitle()));
+            terms.addAll(tokenize(book.getAuthor()));
+            terms.addAll(tokenize(book.getPublisher()));
+            books.put(book.getId(), book);
+            termsByBook.put(book.getId(), terms);
+            for (String term : terms) {
+                postings.computeIfAbsent(term, this::addTerm).add(book.getId());
+            }
+            post(genres, book.getGenre(), book.getId());
+            post(years, book.getYear(), book.getId());
+            post(publishers, book.getPublisher(), book.getId());
+        }
+
+        void remove(long id) {
+            Book book = books.remove(id);
+            if (book != null) {
+                unpost(genres, book.getGenre(), id);
+                unpost(years, book.getYear(), id);
+                unpost(publishers, book.getPublisher(), id);
+            }
+            Set<String> terms = termsByBook.remove(id);
+            if (terms == null) {
+                return;
+            }
+            for (String term : terms) {
+                Set<Long> ids = postings.get(term);
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(term);
+                    removeTerm(term);
+                }
+            }
+        }
+
+        BookSearchResult search(Set<String> tokens, String genre, String year,
+            String publisher, int size) {
+            Map<Long, Integer> scores = null;
+            for (String token : tokens) {
+                Map<Long, Integer> matches = match(token);
+                if (scores == null) {
+                    scores = matches;
+                } else {
+                    scores.keySet().retainAll(matches.keySet());
+                    scores.replaceAll((id, score) -> score + matches.get(id));
+                }
+            }
+            Map<Long, Integer> ranked = scores;
+            List<Book> found = ranked.keySet().stream()
+                .map(books::get)
+                .filter(book -> matchesFacet(book.getGenre(), genre)
+                    && matchesFacet(book.getYear(), year)
+                    && matchesFacet(book.getPublisher(), publisher))
+                .collect(Collectors.toList());
+
+            Comparator<Book> order = Comparator.<Book>comparingInt(
+                book -> -ranked.get(book.getId()))
+                .thenComparing(Book::getTitle)
+                .thenComparingLong(Book::getId);
+            List<Book> page = found.stream().sorted(order).limit(size)
+                .collect(Collectors.toList());
+            return new BookSearchResult(page, found.size(), facets(found));
+        }
+
+        /**
+         * Intersects the postings of the selected facet values, smallest first; with no facet
+         * selected every book matches. The page is ordered by title.
+         */
+        BookSearchResult browse(String genre, String year, String publisher, int size) {
+            List<Set<Long>> selected = new ArrayList<>();
+            select(selected, genres, genre);
+            select(selected, years, year);
+            select(selected, publishers, publisher);
+            Set<Long> ids;
+            if (selected.isEmpty()) {
+                ids = books.keySet();
+            } else {
+                selected.sort(Comparator.comparingInt(Set::size));
+                ids = new HashSet<>(selected.get(0));
+                selected.subList(1, selected.size()).forEach(ids::retainAll);
+            }
+            List<Book> found = ids.stream().map(books::get).collect(Collectors.toList());
+            List<Book> page = found.stream()
+                .sorted(Comparator.comparing(Book::getTitle).thenComparingLong(Book::getId))
+                .limit(size)
+                .collect(Collectors.toList());
+            return new BookSearchResult(page, found.size(), facets(found));
+        }
+
+        private Map<Long, Integer> match(String token) {
+            Map<Long, Integer> matches = new HashMap<>();
+            if (token.length() >= MIN_FUZZY_LENGTH) {
+                for (String key : deletionKeys(token)) {
+                    for (String term : deletions.getOrDefault(key, new HashSet<>())) {
+                        if (withinOneEdit(token, term)) {
+                            score(matches, postings.get(term), FUZZY_SCORE);
+                        }
+                    }
+                }
+            }
+            postings.subMap(token, true, token + Character.MAX_VALUE, false)
+                .forEach((term, ids) -> score(matches, ids, PREFIX_SCORE));
+            score(matches, postings.get(token), EXACT_SCORE);
+            return matches;
+        }
+
+        private void score(Map<Long, Integer> matches, Set<Long> ids, int score) {
+            if (ids != null) {
+                ids.forEach(id -> matches.merge(id, score, Math::max));
+            }
+        }
+
+        private void select(List<Set<Long>> selected, Map<String, Set<Long>> facet,
+            String value) {
+            if (value != null) {
+                selected.add(facet.getOrDefault(facetKey(value), Collections.emptySet()));
+            }
+        }
+
+        private void post(Map<String, Set<Long>> facet, String value, long id) {
+            if (value != null) {
+                facet.computeIfAbsent(facetKey(value), key -> new HashSet<>()).add(id);
+            }
+        }
+
+        private void unpost(Map<String, Set<Long>> facet, String value, long id) {
+            if (value == null) {
+                return;
+            }
+            Set<Long> ids = facet.get(facetKey(value));
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                facet.remove(facetKey(value));
+            }
+        }
+
+        private Set<Long> addTerm(String term) {
+            deletionKeys(term)
+                .forEach(key -> deletions.computeIfAbsent(key, k -> new HashSet<>()).add(term));
+            return new HashSet<>();
+        }
+
+        private void removeTerm(String term) {
+            for (String key : deletionKeys(term)) {
+                Set<String> terms = deletions.get(key);
+                terms.remove(term);
+                if (terms.isEmpty()) {
+                    deletions.remove(key);
+                }
+            }
+        }
+    }
+}
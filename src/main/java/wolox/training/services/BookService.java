@@ -0,0 +1,86 @@
+package wolox.training.services;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Set;
+import javax.persistence.CacheRetrieveMode;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import wolox.training.exceptions.BookNotFoundException;
+import wolox.training.exceptions.ResourceModifiedException;
+import wolox.training.models.Book;
+import wolox.training.repositories.BookRepository;
+
+/**
+ * Writes are single versioned statements whose affected-row count tells a missing book or a
+ * stale If-Match apart from a successful write, so the book is never read before it is
+ * changed. Bulk statements skip the entity events, so the search index is kept in step here.
+ */
+@Service
+public class BookService {
+
+    private static final String CACHE_RETRIEVE_MODE = "javax.persistence.cache.retrieveMode";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookSearchService bookSearchService;
+
+    /**
+     * The updated book is read back for the response, bypassing the second-level cache, which
+     * keeps its entry locked until the transaction completes.
+     */
+    @Transactional
+    public Book updateBook(Long id, Book changes, Set<Long> acceptedVersions) {
+        int updated = 0;
+        if (acceptedVersions == null) {
+            updated = bookRepository.updateBook(id, changes, Instant.now());
+        } else if (!acceptedVersions.isEmpty()) {
+            updated = bookRepository.updateBook(id, changes, acceptedVersions, Instant.now());
+        }
+        if (updated == 0) {
+            throw missingOrModified(id, acceptedVersions);
+        }
+        Book book = entityManager.find(Book.class, id, Collections
+            .singletonMap(CACHE_RETRIEVE_MODE, CacheRetrieveMode.BYPASS));
+        afterCommit(() -> bookSearchService.index(book));
+        return book;
+    }
+
+    /**
+     * The users_books rows go with it through the ON DELETE CASCADE foreign key.
+     */
+    @Transactional
+    public void deleteBook(Long id) {
+        if (bookRepository.deleteBookById(id) == 0) {
+            throw new BookNotFoundException();
+        }
+        afterCommit(() -> bookSearchService.remove(id));
+    }
+
+    private RuntimeException missingOrModified(Long id, Set<Long> acceptedVersions) {
+        if (acceptedVersions != null && bookRepository.existsById(id)) {
+            return new ResourceModifiedException();
+        }
+        return new BookNotFoundException();
+    }
+
+    private void afterCommit(Runnable action) {
+        TransactionSynchronizationManager
+            .registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+    }
+}
@@ -0,0 +1,131 @@
+package wolox.training.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Successful credential checks keyed by an HMAC of (user name, password) under a per-process
+ * random key, so neither the password nor a reusable hash is kept in memory.
+ *
+ * <p>A login takes a {@link #ticket()} before it reads the stored hash and hands it back to
+ * {@link #remember}. An entry only counts if its ticket is newer than the last invalidation of
+ * its user, so a login that read the old hash and finished after a password change cannot put
+ * the old password back.
+ */
+@Service
+public class CredentialCacheService {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${auth.credentialCache.maximumSize}")
+    private long maximumSize;
+
+    @Value("${auth.credentialCache.ttlSeconds}")
+    private long ttlSeconds;
+
+    private Cache<String, Credential> credentials;
+
+    private Cache<Long, Long> invalidations;
+
+    private final AtomicLong tickets = new AtomicLong();
+
+    private SecretKeySpec key;
+
+    private ThreadLocal<Mac> macs;
+
+    @PostConstruct
+    public void init() {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+        macs = ThreadLocal.withInitial(this::newMac);
+        credentials = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build();
+        invalidations = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, credentials, "credentials");
+    }
+
+    public Optional<Long> verifiedUserId(String userName, String password) {
+        return Optional.ofNullable(credentials.getIfPresent(digest(userName, password)))
+            .filter(this::isCurrent)
+            .map(Credential::getUserId);
+    }
+
+    public long ticket() {
+        return tickets.incrementAndGet();
+    }
+
+    public void remember(String userName, String password, Long userId, long ticket) {
+        Credential credential = new Credential(userId, ticket);
+        if (isCurrent(credential)) {
+            credentials.put(digest(userName, password), credential);
+        }
+    }
+
+    public void invalidate(Long userId) {
+        invalidations.put(userId, tickets.incrementAndGet());
+        credentials.asMap().values().removeIf(credential -> userId.equals(credential.getUserId()));
+    }
+
+    public CacheStats stats() {
+        return credentials.stats();
+    }
+
+    private boolean isCurrent(Credential credential) {
+        Long invalidated = invalidations.getIfPresent(credential.getUserId());
+        return invalidated == null || credential.getTicket() > invalidated;
+    }
+
+    private String digest(String userName, String password) {
+        Mac mac = macs.get();
+        mac.update(userName.getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        return Base64.getEncoder()
+            .encodeToString(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialize credential digest", e);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Credential {
+
+        private final Long userId;
+
+        private final long ticket;
+    }
+}
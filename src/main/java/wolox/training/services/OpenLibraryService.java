@@ -1,13 +1,23 @@
 package wolox.training.services;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import wolox.training.clients.OpenLibraryClient;
 import wolox.training.dto.OpenLibraryBook;
 import wolox.training.exceptions.BookNotFoundException;
 import wolox.training.models.Book;
@@ -18,44 +28,116 @@ public class OpenLibraryService {
 
     @Autowired
     private BookRepository bookRepository;
-    private ObjectMapper objectMapper;
-
-    @Value("${openLibrary.baseUrl}")
-    private String baseUrl;
-
-    public OpenLibraryBook bookInfo(String isbn) throws JsonProcessingException {
-        RestTemplate restTemplate = new RestTemplate();
-        objectMapper = new ObjectMapper();
-        String url =
-            baseUrl + String.format("/api/books?bibkeys=ISBN:%s&format=json&jscmd=data", isbn);
-        ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
-        JsonNode result = objectMapper.readTree(response.getBody());
-        if (result.isEmpty()) {
-            throw new BookNotFoundException();
+
+    @Autowired
+    private OpenLibraryClient openLibraryClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PrimaryReadService primaryReadService;
+
+    @Value("${openLibrary.cache.maximumSize}")
+    private long cacheMaximumSize;
+
+    @Value("${openLibrary.cache.ttlMinutes}")
+    private long cacheTtlMinutes;
+
+    @Value("${openLibrary.cache.notFoundTtlMinutes}")
+    private long cacheNotFoundTtlMinutes;
+
+    private Ticker ticker = Ticker.systemTicker();
+
+    private Cache<String, Optional<OpenLibraryBook>> lookups;
+
+    private final ConcurrentMap<String, CompletableFuture<Book>> imports = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        lookups = Caffeine.newBuilder()
+            .maximumSize(cacheMaximumSize)
+            .expireAfter(new LookupExpiry())
+            .ticker(ticker)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, lookups, "openLibrary");
+    }
+
+    public OpenLibraryBook bookInfo(String isbn) {
+        return lookups.get(OpenLibraryClient.normalizeIsbn(isbn), this::fetchBookInfo)
+            .orElseThrow(BookNotFoundException::new);
+    }
+
+    public Book importBook(String rawIsbn) {
+        String isbn = OpenLibraryClient.normalizeIsbn(rawIsbn);
+        CompletableFuture<Book> leader = new CompletableFuture<>();
+        CompletableFuture<Book> inFlight = imports.putIfAbsent(isbn, leader);
+        if (inFlight != null) {
+            return awaitImport(inFlight);
+        }
+        try {
+            Book book = primaryReadService.read(() -> bookRepository.findByIsbn(isbn))
+                .orElseGet(() -> saveBook(bookInfo(isbn)));
+            leader.complete(book);
+            return book;
+        } catch (RuntimeException e) {
+            leader.completeExceptionally(e);
+            throw e;
+        } finally {
+            imports.remove(isbn, leader);
         }
-        return buildLibraryBookDto(result.path("ISBN:" + isbn), isbn);
-    }
-
-    public OpenLibraryBook buildLibraryBookDto(JsonNode jsonNode, String isbn) {
-        OpenLibraryBook book = new OpenLibraryBook();
-        book.setIsbn(isbn);
-        book.setTitle(jsonNode.path("title").asText());
-        book.setSubtitle(jsonNode.path("subtitle").asText());
-        book.setPublisher(jsonNode.path("publishers").findPath("name").asText());
-        book.setPublishDate(jsonNode.path("publish_date").asText());
-        book.setNumberOfPages(Integer.parseInt(jsonNode.path("number_of_pages").asText()));
-        book.setAuthors((jsonNode.path("authors").findPath("name").asText()));
-        book.setImage(jsonNode.path("cover").path("medium").asText());
-        return book;
     }
 
     public Book saveBook(OpenLibraryBook openLibraryBook) {
-        Book book = new Book(openLibraryBook.getTitle(), openLibraryBook.getAuthors(), "No genre",
+        Book book = toBook(openLibraryBook);
+        bookRepository.save(book);
+        return book;
+    }
+
+    public Book toBook(OpenLibraryBook openLibraryBook) {
+        return new Book(openLibraryBook.getTitle(), openLibraryBook.getAuthors(), "No genre",
             openLibraryBook.getImage(), openLibraryBook.getSubtitle(),
             openLibraryBook.getPublishDate(),
             openLibraryBook.getPublisher(), openLibraryBook.getIsbn(),
-            openLibraryBook.getNumberOfPages());
-        bookRepository.save(book);
-        return book;
+            Optional.ofNullable(openLibraryBook.getNumberOfPages()).orElse(0));
+    }
+
+    private Optional<OpenLibraryBook> fetchBookInfo(String isbn) {
+        return Optional.ofNullable(
+            openLibraryClient.fetchBooks(Collections.singletonList(isbn)).get(isbn));
+    }
+
+    private Book awaitImport(CompletableFuture<Book> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private class LookupExpiry implements Expiry<String, Optional<OpenLibraryBook>> {
+
+        @Override
+        public long expireAfterCreate(String isbn, Optional<OpenLibraryBook> book,
+            long currentTime) {
+            return TimeUnit.MINUTES
+                .toNanos(book.isPresent() ? cacheTtlMinutes : cacheNotFoundTtlMinutes);
+        }
+
+        @Override
+        public long expireAfterUpdate(String isbn, Optional<OpenLibraryBook> book,
+            long currentTime, long currentDuration) {
+            return expireAfterCreate(isbn, book, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String isbn, Optional<OpenLibraryBook> book,
+            long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
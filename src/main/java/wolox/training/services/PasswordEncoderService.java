@@ -1,25 +1,96 @@
 package wolox.training.services;
 
-import org.springframework.context.annotation.Bean;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import wolox.training.exceptions.PasswordHashingUnavailableException;
 
 @Service
 public class PasswordEncoderService {
 
-    @Bean
-    public static PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ThreadPoolTaskExecutor passwordHashingExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer encodeTimer;
+
+    private Timer matchesTimer;
+
+    @PostConstruct
+    public void init() {
+        encodeTimer = meterRegistry.timer("password.hashing", "operation", "encode");
+        matchesTimer = meterRegistry.timer("password.hashing", "operation", "matches");
+        Gauge.builder("password.hashing.queue.size", passwordHashingExecutor,
+            executor -> executor.getThreadPoolExecutor().getQueue().size())
+            .register(meterRegistry);
+        Gauge.builder("password.hashing.active", passwordHashingExecutor,
+            ThreadPoolTaskExecutor::getActiveCount)
+            .register(meterRegistry);
     }
 
-    public static String encode(String password) {
-        return passwordEncoder().encode(password);
+    public String encode(String password) {
+        return encodeTimer.record(() -> passwordEncoder.encode(password));
     }
 
     public boolean matches(CharSequence password, String encodedPassword) {
-        return passwordEncoder().matches(password, encodedPassword);
+        return matchesTimer.record(() -> passwordEncoder.matches(password, encodedPassword));
     }
 
+    public CompletableFuture<String> encodeAsync(String password) {
+        return submit(() -> encode(password));
+    }
 
+    public CompletableFuture<List<String>> encodeAllAsync(List<String> passwords) {
+        int slices = Math.max(1,
+            Math.min(passwordHashingExecutor.getMaxPoolSize(), passwords.size()));
+        int sliceSize = Math.max(1, (passwords.size() + slices - 1) / slices);
+        List<CompletableFuture<List<String>>> futures = new ArrayList<>();
+        for (int from = 0; from < passwords.size(); from += sliceSize) {
+            List<String> slice = passwords
+                .subList(from, Math.min(from + sliceSize, passwords.size()));
+            futures.add(
+                submit(() -> slice.stream().map(this::encode).collect(Collectors.toList())));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+            .thenApply(done -> futures.stream()
+                .flatMap(future -> future.join().stream())
+                .collect(Collectors.toList()));
+    }
+
+    public CompletableFuture<Boolean> matchesAsync(CharSequence password,
+        String encodedPassword) {
+        return submit(() -> matches(password, encodedPassword));
+    }
+
+    /**
+     * True for a hash made by another algorithm than the current one, or by bcrypt at a lower
+     * cost than the configured strength.
+     */
+    public boolean upgradeEncoding(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, passwordHashingExecutor);
+        } catch (RejectedExecutionException e) {
+            throw new PasswordHashingUnavailableException();
+        }
+    }
 }
@@ -0,0 +1,28 @@
+package wolox.training.services;
+
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import wolox.training.config.ReadWriteRoutingDataSource;
+
+/**
+ * Runs reads in one read-only transaction on the primary. Meant for reads that a replica's lag
+ * would corrupt: a version compared against the client's ETag together with the body it
+ * describes, the login lookup, and loads that fill the second-level or query cache, which every
+ * later request would then be served from.
+ */
+@Service
+public class PrimaryReadService {
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    public <T> T read(Supplier<T> work) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return ReadWriteRoutingDataSource
+            .onPrimary(() -> transaction.execute(status -> work.get()));
+    }
+}
@@ -0,0 +1,26 @@
+package wolox.training.services;
+
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs reads in one read-only transaction, which the routing sends to a single replica, or to
+ * the primary while the client's own writes may still be replicating. Meant for a listing's
+ * version and the page it describes: read together on one node, the version first, the page can
+ * only be as new as its ETag or newer, never older.
+ */
+@Service
+public class ReplicaReadService {
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    public <T> T read(Supplier<T> work) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> work.get());
+    }
+}
@@ -1,8 +1,24 @@
 package wolox.training.services;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import wolox.training.exceptions.BookAlreadyOwnedException;
+import wolox.training.exceptions.BookIdMismatchException;
+import wolox.training.exceptions.ResourceModifiedException;
+import wolox.training.exceptions.UserIdMismatchException;
+import wolox.training.exceptions.UserNotFoundException;
 import wolox.training.models.User;
+import wolox.training.repositories.BookRepository;
 import wolox.training.repositories.UserRepository;
 
 @Service
@@ -11,15 +27,115 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
-    public User updateUser(User user, User modifiedUser) {
-        user.setUserName(modifiedUser.getUserName());
-        user.setName(modifiedUser.getName());
-        user.setBirthDate(modifiedUser.getBirthDate());
-        return userRepository.save(user);
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private CredentialCacheService credentialCacheService;
+
+    @Autowired
+    private PasswordEncoderService passwordEncoderService;
+
+    @Autowired
+    private ThreadPoolTaskExecutor passwordPersistenceExecutor;
+
+    public CompletableFuture<User> createUser(User user) {
+        return passwordEncoderService.encodeAsync(user.getPassword())
+            .thenApplyAsync(password -> {
+                user.setPassword(password);
+                return userRepository.save(user);
+            }, passwordPersistenceExecutor);
+    }
+
+    public CompletableFuture<Iterable<User>> createUsers(List<User> users) {
+        List<String> passwords = users.stream().map(User::getPassword)
+            .collect(Collectors.toList());
+        return passwordEncoderService.encodeAllAsync(passwords)
+            .thenApplyAsync(encodedPasswords -> {
+                for (int i = 0; i < users.size(); i++) {
+                    users.get(i).setPassword(encodedPasswords.get(i));
+                }
+                return userRepository.saveAll(users);
+            }, passwordPersistenceExecutor);
+    }
+
+    /**
+     * One versioned UPDATE whose affected-row count stands in for the existence and If-Match
+     * checks; the user is only read afterwards, for the response.
+     */
+    @Transactional
+    public User updateUser(Long id, User modifiedUser, Set<Long> acceptedVersions) {
+        int updated = 0;
+        if (acceptedVersions == null) {
+            updated = userRepository.updateUser(id, modifiedUser, Instant.now());
+        } else if (!acceptedVersions.isEmpty()) {
+            updated = userRepository.updateUser(id, modifiedUser, acceptedVersions, Instant.now());
+        }
+        if (updated == 0) {
+            if (acceptedVersions != null && userRepository.existsById(id)) {
+                throw new ResourceModifiedException();
+            }
+            throw new UserNotFoundException();
+        }
+        TransactionSynchronizationManager
+            .registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    credentialCacheService.invalidate(id);
+                }
+            });
+        return userRepository.findWithBooksById(id).orElseThrow(UserNotFoundException::new);
+    }
+
+    public CompletableFuture<User> updateUserPassword(User user, String password) {
+        return passwordEncoderService.encodeAsync(password)
+            .thenApplyAsync(encodedPassword -> {
+                userRepository.updatePassword(user.getId(), encodedPassword, Instant.now());
+                credentialCacheService.invalidate(user.getId());
+                return userRepository.findWithBooksById(user.getId())
+                    .orElseThrow(UserNotFoundException::new);
+            }, passwordPersistenceExecutor);
+    }
+
+    public void deleteUser(Long id) {
+        if (userRepository.deleteUserById(id) == 0) {
+            throw new UserNotFoundException();
+        }
+        credentialCacheService.invalidate(id);
+    }
+
+    /**
+     * The insert selects both rows, so it adds nothing when either is missing; only then are
+     * they looked up to tell which one.
+     */
+    public User addBook(Long userId, Long bookId) {
+        int added;
+        try {
+            added = userRepository.addBook(userId, bookId);
+        } catch (DataIntegrityViolationException e) {
+            throw new BookAlreadyOwnedException();
+        }
+        if (added == 0) {
+            checkCollectionTargets(userId, bookId);
+        }
+        return userRepository.findWithBooksById(userId)
+            .orElseThrow(UserIdMismatchException::new);
+    }
+
+    public User removeBook(Long userId, Long bookId) {
+        if (userRepository.removeBook(userId, bookId) == 0) {
+            checkCollectionTargets(userId, bookId);
+        }
+        return userRepository.findWithBooksById(userId)
+            .orElseThrow(UserIdMismatchException::new);
     }
 
-    public User updateUserPassword(User user, String password) {
-        user.setPassword(user.getPassword());
-        return userRepository.save(user);
+    private void checkCollectionTargets(Long userId, Long bookId) {
+        if (!userRepository.existsById(userId)) {
+            throw new UserIdMismatchException();
+        }
+        if (!bookRepository.existsById(bookId)) {
+            throw new BookIdMismatchException();
+        }
     }
 }
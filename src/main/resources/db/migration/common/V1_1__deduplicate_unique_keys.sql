@@ -0,0 +1,20 @@
+-- Databases baselined at version 1 may hold rows that break the unique indexes of version 2.
+-- Duplicate books keep their lowest id, and collections are pointed at it before the rest go.
+UPDATE users_books SET books_id = (
+    SELECT MIN(same.id) FROM books book JOIN books same ON same.isbn = book.isbn
+    WHERE book.id = users_books.books_id)
+WHERE books_id NOT IN (SELECT MIN(id) FROM books GROUP BY isbn);
+DELETE FROM books WHERE id NOT IN (SELECT MIN(id) FROM books GROUP BY isbn);
+
+-- Users are never merged: every duplicate user name but the first gets its id appended.
+UPDATE users SET user_name = user_name || '-' || CAST(id AS VARCHAR(20))
+WHERE id NOT IN (SELECT MIN(id) FROM users GROUP BY user_name);
+
+-- The join table has no key, so repeated pairs are put back once each.
+CREATE TABLE users_books_duplicates AS
+    SELECT user_id, books_id FROM users_books GROUP BY user_id, books_id HAVING COUNT(*) > 1;
+DELETE FROM users_books WHERE EXISTS (
+    SELECT 1 FROM users_books_duplicates duplicate
+    WHERE duplicate.user_id = users_books.user_id AND duplicate.books_id = users_books.books_id);
+INSERT INTO users_books (user_id, books_id) SELECT user_id, books_id FROM users_books_duplicates;
+DROP TABLE users_books_duplicates;
@@ -0,0 +1,32 @@
+CREATE SEQUENCE book_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE user_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE books (
+    id BIGINT NOT NULL,
+    author VARCHAR(255) NOT NULL,
+    genre VARCHAR(255),
+    image VARCHAR(255) NOT NULL,
+    isbn VARCHAR(255) NOT NULL,
+    pages INTEGER NOT NULL,
+    publisher VARCHAR(255) NOT NULL,
+    subtitle VARCHAR(255) NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    year VARCHAR(255) NOT NULL,
+    CONSTRAINT pk_books PRIMARY KEY (id)
+);
+
+CREATE TABLE users (
+    id BIGINT NOT NULL,
+    birth_date DATE NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    user_name VARCHAR(255) NOT NULL,
+    CONSTRAINT pk_users PRIMARY KEY (id)
+);
+
+CREATE TABLE users_books (
+    user_id BIGINT NOT NULL,
+    books_id BIGINT NOT NULL,
+    CONSTRAINT fk_users_books_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_users_books_book FOREIGN KEY (books_id) REFERENCES books (id)
+);
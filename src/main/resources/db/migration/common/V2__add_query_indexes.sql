@@ -0,0 +1,9 @@
+CREATE UNIQUE INDEX uk_books_isbn ON books (isbn);
+CREATE INDEX idx_books_author ON books (author);
+CREATE INDEX idx_books_publisher_genre_year ON books (publisher, genre, year);
+
+CREATE UNIQUE INDEX uk_users_user_name ON users (user_name);
+CREATE INDEX idx_users_birth_date ON users (birth_date);
+
+CREATE UNIQUE INDEX uk_users_books ON users_books (user_id, books_id);
+CREATE INDEX idx_users_books_book ON users_books (books_id);
@@ -0,0 +1,5 @@
+ALTER TABLE books ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE books ADD COLUMN last_modified TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL;
+
+ALTER TABLE users ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE users ADD COLUMN last_modified TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL;
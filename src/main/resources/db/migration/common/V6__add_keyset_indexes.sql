@@ -0,0 +1,12 @@
+-- Keyset pages order by (sort key, id), so every sortable column gets an index ending in id.
+-- The unique isbn and user_name indexes already give a total order on their own.
+CREATE INDEX idx_books_title_id ON books (title, id);
+CREATE INDEX idx_books_author_id ON books (author, id);
+CREATE INDEX idx_books_publisher_id ON books (publisher, id);
+CREATE INDEX idx_books_year_id ON books (year, id);
+CREATE INDEX idx_books_pages_id ON books (pages, id);
+DROP INDEX idx_books_author;
+
+CREATE INDEX idx_users_name_id ON users (name, id);
+CREATE INDEX idx_users_birth_date_id ON users (birth_date, id);
+DROP INDEX idx_users_birth_date;
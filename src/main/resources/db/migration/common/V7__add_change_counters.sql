@@ -0,0 +1,7 @@
+CREATE TABLE change_counters (
+    table_name VARCHAR(64) PRIMARY KEY,
+    changes BIGINT DEFAULT 0 NOT NULL
+);
+
+INSERT INTO change_counters (table_name) VALUES ('books');
+INSERT INTO change_counters (table_name) VALUES ('users');
@@ -0,0 +1,2 @@
+-- H2 has neither pg_trgm nor expression indexes: the name search scans the
+-- birth_date range instead, which is enough for the test data sets.
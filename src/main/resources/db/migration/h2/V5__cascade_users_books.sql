@@ -0,0 +1,7 @@
+ALTER TABLE users_books DROP CONSTRAINT fk_users_books_user;
+ALTER TABLE users_books DROP CONSTRAINT fk_users_books_book;
+
+ALTER TABLE users_books ADD CONSTRAINT fk_users_books_user
+    FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE;
+ALTER TABLE users_books ADD CONSTRAINT fk_users_books_book
+    FOREIGN KEY (books_id) REFERENCES books (id) ON DELETE CASCADE;
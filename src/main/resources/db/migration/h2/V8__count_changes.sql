@@ -0,0 +1,7 @@
+-- H2 triggers are Java classes; see ChangeCounterTrigger for the table each one counts into.
+CREATE TRIGGER books_changes AFTER INSERT, UPDATE, DELETE ON books
+    CALL "wolox.training.repositories.ChangeCounterTrigger";
+CREATE TRIGGER users_changes AFTER INSERT, UPDATE, DELETE ON users
+    CALL "wolox.training.repositories.ChangeCounterTrigger";
+CREATE TRIGGER users_books_changes AFTER INSERT, UPDATE, DELETE ON users_books
+    CALL "wolox.training.repositories.ChangeCounterTrigger";
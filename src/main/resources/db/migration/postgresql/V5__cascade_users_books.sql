@@ -0,0 +1,17 @@
+-- Databases baselined from the Hibernate generated schema carry foreign keys with generated
+-- names, so every foreign key of the join table is replaced.
+DO $$
+DECLARE
+    fk record;
+BEGIN
+    FOR fk IN SELECT conname FROM pg_constraint
+        WHERE conrelid = 'users_books'::regclass AND contype = 'f'
+    LOOP
+        EXECUTE 'ALTER TABLE users_books DROP CONSTRAINT ' || quote_ident(fk.conname);
+    END LOOP;
+END $$;
+
+ALTER TABLE users_books ADD CONSTRAINT fk_users_books_user
+    FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE;
+ALTER TABLE users_books ADD CONSTRAINT fk_users_books_book
+    FOREIGN KEY (books_id) REFERENCES books (id) ON DELETE CASCADE;
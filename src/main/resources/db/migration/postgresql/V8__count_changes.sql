@@ -0,0 +1,15 @@
+-- Statement-level, so a batch or bulk statement bumps its counter once. users_books rows count
+-- as changes to the users they belong to.
+CREATE FUNCTION count_change() RETURNS trigger AS $$
+BEGIN
+    UPDATE change_counters SET changes = changes + 1 WHERE table_name = TG_ARGV[0];
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER books_changes AFTER INSERT OR UPDATE OR DELETE ON books
+    FOR EACH STATEMENT EXECUTE PROCEDURE count_change('books');
+CREATE TRIGGER users_changes AFTER INSERT OR UPDATE OR DELETE ON users
+    FOR EACH STATEMENT EXECUTE PROCEDURE count_change('users');
+CREATE TRIGGER users_books_changes AFTER INSERT OR UPDATE OR DELETE ON users_books
+    FOR EACH STATEMENT EXECUTE PROCEDURE count_change('users');
@@ -0,0 +1,62 @@
+package wolox.training;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class MigrationsTest {
+
+    private JdbcDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:migrations;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        flyway("1").migrate();
+    }
+
+    @Test
+    public void givenDuplicateKeys_whenMigrated_thenCreateUniqueIndexes() {
+        insertBook(1, "9788499890944");
+        insertBook(2, "9788499890944");
+        insertUser(1, "rulo");
+        insertUser(2, "rulo");
+        jdbcTemplate.update("INSERT INTO users_books VALUES (1, 1), (1, 2), (2, 2), (2, 2)");
+
+        flyway("latest").migrate();
+
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM books", Long.class))
+            .containsExactly(1L);
+        assertThat(jdbcTemplate.queryForList("SELECT user_name FROM users ORDER BY id",
+            String.class)).containsExactly("rulo", "rulo-2");
+        assertThat(jdbcTemplate.queryForList(
+            "SELECT user_id FROM users_books WHERE books_id = 1 ORDER BY user_id", Long.class))
+            .containsExactly(1L, 2L);
+    }
+
+    private Flyway flyway(String target) {
+        return Flyway.configure().dataSource(dataSource)
+            .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+            .target(target)
+            .load();
+    }
+
+    private void insertBook(long id, String isbn) {
+        jdbcTemplate.update("INSERT INTO books (id, author, image, isbn, pages, publisher,"
+            + " subtitle, title, year) VALUES (?, 'George Orwell', 'image.jpg', ?, 309,"
+            + " 'Debolsillo', '1984', 'Nineteen Eighty Four', '1948')", id, isbn);
+    }
+
+    private void insertUser(long id, String userName) {
+        jdbcTemplate.update("INSERT INTO users (id, birth_date, name, password, user_name)"
+            + " VALUES (?, DATE '1990-01-01', 'Raul', 'password', ?)", id, userName);
+    }
+}
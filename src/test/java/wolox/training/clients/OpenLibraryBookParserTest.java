@@ -0,0 +1,65 @@
+package wolox.training.clients;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import wolox.training.dto.OpenLibraryBook;
+
+public class OpenLibraryBookParserTest {
+
+    private OpenLibraryBookParser parser;
+
+    @Before
+    public void setUp() {
+        parser = new OpenLibraryBookParser();
+        ReflectionTestUtils.setField(parser, "objectMapper", new ObjectMapper());
+        parser.init();
+    }
+
+    @Test
+    public void whenParseBook_thenReturnOnlyUsedFields() throws IOException {
+        Map<String, OpenLibraryBook> books = parse("{\"ISBN:0385472579\": {"
+            + "\"publishers\": [{\"name\": \"Anchor Books\"}, {\"name\": \"Other\"}],"
+            + "\"identifiers\": {\"isbn_10\": [\"0385472579\"]},"
+            + "\"title\": \"Zen speaks\", \"subtitle\": \"shouts of nothingness\","
+            + "\"authors\": [{\"url\": \"https://openlibrary.org\", \"name\": \"Zhizhong Cai\"}],"
+            + "\"publish_date\": \"1994\", \"number_of_pages\": 159,"
+            + "\"cover\": {\"small\": \"s.jpg\", \"medium\": \"m.jpg\"}}}");
+        OpenLibraryBook book = books.get("0385472579");
+        assertThat(book.getTitle()).isEqualTo("Zen speaks");
+        assertThat(book.getSubtitle()).isEqualTo("shouts of nothingness");
+        assertThat(book.getPublisher()).isEqualTo("Anchor Books");
+        assertThat(book.getAuthors()).isEqualTo("Zhizhong Cai");
+        assertThat(book.getPublishDate()).isEqualTo("1994");
+        assertThat(book.getNumberOfPages()).isEqualTo(159);
+        assertThat(book.getImage()).isEqualTo("m.jpg");
+    }
+
+    @Test
+    public void whenPagesAreMissingOrNotNumeric_thenReturnNullPages() throws IOException {
+        Map<String, OpenLibraryBook> books = parse("{\"ISBN:1\": {\"title\": \"One\"},"
+            + "\"ISBN:2\": {\"title\": \"Two\", \"number_of_pages\": \"unknown\"},"
+            + "\"ISBN:3\": {\"title\": \"Three\", \"number_of_pages\": \"42\"}}");
+        assertThat(books).hasSize(3);
+        assertThat(books.get("1").getNumberOfPages()).isNull();
+        assertThat(books.get("2").getNumberOfPages()).isNull();
+        assertThat(books.get("3").getNumberOfPages()).isEqualTo(42);
+        assertThat(books.get("1").getPublisher()).isEmpty();
+    }
+
+    @Test
+    public void whenResponseIsEmpty_thenReturnNoBooks() throws IOException {
+        assertThat(parse("{}")).isEmpty();
+    }
+
+    private Map<String, OpenLibraryBook> parse(String json) throws IOException {
+        return parser.parseBooks(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,201 @@
+package wolox.training.clients;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import wolox.training.config.OpenLibraryConfig;
+import wolox.training.dto.OpenLibraryBook;
+import wolox.training.exceptions.OpenLibraryInvalidResponseException;
+import wolox.training.exceptions.OpenLibraryUnavailableException;
+
+public class OpenLibraryClientTest {
+
+    private static final String ISBN = "0385472579";
+    private static final String BOOK = "{\"ISBN:" + ISBN + "\": {\"title\": \"Zen speaks\"}}";
+
+    private HttpServer server;
+
+    private ExecutorService serverExecutor;
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private volatile Handler handler;
+
+    private OpenLibraryConfig openLibraryConfig;
+
+    private CloseableHttpClient httpClient;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @Before
+    public void setUp() throws IOException {
+        serverExecutor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/books", exchange -> {
+            requests.incrementAndGet();
+            try {
+                handler.handle(exchange);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        openLibraryConfig = new OpenLibraryConfig();
+        ReflectionTestUtils.setField(openLibraryConfig, "baseUrl",
+            "http://localhost:" + server.getAddress().getPort());
+        ReflectionTestUtils.setField(openLibraryConfig, "connectTimeoutMs", 1000);
+        ReflectionTestUtils.setField(openLibraryConfig, "readTimeoutMs", 200);
+        ReflectionTestUtils.setField(openLibraryConfig, "connectionRequestTimeoutMs", 1000);
+        ReflectionTestUtils.setField(openLibraryConfig, "maxConnections", 10);
+        ReflectionTestUtils.setField(openLibraryConfig, "maxConnectionsPerHost", 10);
+        ReflectionTestUtils.setField(openLibraryConfig, "failureRateThreshold", 50f);
+        ReflectionTestUtils.setField(openLibraryConfig, "slidingWindowSize", 20);
+        ReflectionTestUtils.setField(openLibraryConfig, "waitDurationInOpenStateSeconds", 30L);
+        ReflectionTestUtils.setField(openLibraryConfig, "retryBudgetRatio", 0.1);
+        ReflectionTestUtils.setField(openLibraryConfig, "retryBudgetMaxTokens", 10.0);
+        httpClient = openLibraryConfig.openLibraryHttpClient();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        httpClient.close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void givenServerErrors_whenFetched_thenRetryUntilSuccess() {
+        handler = exchange -> respond(exchange, requests.get() < 3 ? 503 : 200, BOOK);
+
+        Map<String, OpenLibraryBook> books = client(3).fetchBooks(
+            Collections.singletonList(ISBN));
+
+        assertThat(books.get(ISBN).getTitle()).isEqualTo("Zen speaks");
+        assertThat(requests).hasValue(3);
+    }
+
+    @Test
+    public void givenHyphenatedIsbn_whenFetched_thenRequestItNormalized() {
+        handler = exchange -> respond(exchange,
+            exchange.getRequestURI().getQuery().contains("ISBN:" + ISBN + "&") ? 200 : 400, BOOK);
+
+        Map<String, OpenLibraryBook> books = client(1).fetchBooks(
+            Collections.singletonList("0-385-47257-9"));
+
+        assertThat(books.get(ISBN).getTitle()).isEqualTo("Zen speaks");
+    }
+
+    @Test
+    public void givenTimeouts_whenFetched_thenGiveUpAfterMaxAttempts() {
+        handler = exchange -> {
+            Thread.sleep(1000);
+            respond(exchange, 200, BOOK);
+        };
+
+        assertThatThrownBy(() -> client(2).fetchBooks(Collections.singletonList(ISBN)))
+            .isInstanceOf(OpenLibraryUnavailableException.class);
+        assertThat(requests).hasValue(2);
+        assertThat(outcomes("unavailable")).isEqualTo(1);
+    }
+
+    @Test
+    public void givenInvalidJson_whenFetched_thenDoNotRetry() {
+        handler = exchange -> respond(exchange, 200, "{\"ISBN:" + ISBN + "\": {\"title\": ");
+
+        assertThatThrownBy(() -> client(3).fetchBooks(Collections.singletonList(ISBN)))
+            .isInstanceOf(OpenLibraryInvalidResponseException.class);
+        assertThat(requests).hasValue(1);
+        assertThat(outcomes("invalid_response")).isEqualTo(1);
+    }
+
+    @Test
+    public void givenRetryBudgetExhausted_whenFetched_thenDoNotRetry() {
+        ReflectionTestUtils.setField(openLibraryConfig, "retryBudgetRatio", 0.0);
+        ReflectionTestUtils.setField(openLibraryConfig, "retryBudgetMaxTokens", 1.0);
+        handler = exchange -> respond(exchange, 503, "Service Unavailable");
+        OpenLibraryClient client = client(3);
+
+        assertThatThrownBy(() -> client.fetchBooks(Collections.singletonList(ISBN)))
+            .isInstanceOf(OpenLibraryUnavailableException.class);
+        assertThat(requests).hasValue(2);
+        assertThatThrownBy(() -> client.fetchBooks(Collections.singletonList(ISBN)))
+            .isInstanceOf(OpenLibraryUnavailableException.class);
+        assertThat(requests).hasValue(3);
+    }
+
+    @Test
+    public void givenFailureRateOverThreshold_whenFetched_thenOpenCircuit() {
+        ReflectionTestUtils.setField(openLibraryConfig, "slidingWindowSize", 2);
+        handler = exchange -> respond(exchange, 500, "Internal Server Error");
+        OpenLibraryClient client = client(1);
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> client.fetchBooks(Collections.singletonList(ISBN)))
+                .isInstanceOf(OpenLibraryUnavailableException.class);
+        }
+        assertThat(requests).hasValue(2);
+        assertThat(outcomes("circuit_open")).isEqualTo(1);
+    }
+
+    private OpenLibraryClient client(int maxAttempts) {
+        OpenLibraryBookParser parser = new OpenLibraryBookParser();
+        ReflectionTestUtils.setField(parser, "objectMapper", new ObjectMapper());
+        parser.init();
+        OpenLibraryClient client = new OpenLibraryClient();
+        ReflectionTestUtils.setField(client, "openLibraryRestTemplate",
+            openLibraryConfig.openLibraryRestTemplate(new RestTemplateBuilder(), httpClient));
+        ReflectionTestUtils.setField(client, "openLibraryBookParser", parser);
+        ReflectionTestUtils.setField(client, "openLibraryCircuitBreaker",
+            openLibraryConfig.openLibraryCircuitBreaker());
+        ReflectionTestUtils.setField(client, "openLibraryRetryBudget",
+            openLibraryConfig.openLibraryRetryBudget());
+        ReflectionTestUtils.setField(client, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(client, "maxAttempts", maxAttempts);
+        ReflectionTestUtils.setField(client, "initialBackoffMs", 1L);
+        ReflectionTestUtils.setField(client, "maxBackoffMs", 10L);
+        return client;
+    }
+
+    private long outcomes(String outcome) {
+        return meterRegistry.timer("openlibrary.requests", "outcome", outcome).count();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body)
+        throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(bytes);
+        }
+    }
+
+    private interface Handler {
+
+        void handle(HttpExchange exchange) throws IOException, InterruptedException;
+    }
+}
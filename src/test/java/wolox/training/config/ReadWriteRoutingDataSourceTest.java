@@ -0,0 +1,124 @@
+package wolox.training.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import javax.sql.DataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+public class ReadWriteRoutingDataSourceTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readWrite;
+
+    private TransactionTemplate readOnly;
+
+    @Before
+    public void setUp() {
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(
+            database("primary"), Arrays.asList(database("replica_a"), database("replica_b")),
+            Duration.ofMinutes(1)));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(
+            dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @After
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void whenReadWriteTransaction_thenUsePrimary() {
+        assertThat(currentDatabase(readWrite)).isEqualTo("PRIMARY");
+    }
+
+    @Test
+    public void whenReadOnlyTransactions_thenUseReplicasInTurn() {
+        assertThat(Arrays.asList(currentDatabase(readOnly), currentDatabase(readOnly)))
+            .containsExactlyInAnyOrder("REPLICA_A", "REPLICA_B");
+    }
+
+    @Test
+    public void whenUserJustWrote_thenTheyReadFromPrimary() {
+        authenticate("writer");
+        currentDatabase(readWrite);
+        assertThat(currentDatabase(readOnly)).isEqualTo("PRIMARY");
+
+        authenticate("reader");
+        assertThat(currentDatabase(readOnly)).startsWith("REPLICA");
+    }
+
+    @Test
+    public void whenPinnedToPrimary_thenReadOnlyTransactionsUsePrimary() {
+        assertThat(ReadWriteRoutingDataSource.onPrimary(() -> Arrays.asList(
+            currentDatabase(readOnly), currentDatabase(readOnly))))
+            .containsExactly("PRIMARY", "PRIMARY");
+        assertThat(currentDatabase(readOnly)).startsWith("REPLICA");
+    }
+
+    @Test
+    public void whenAnonymousClientJustWrote_thenItReadsFromPrimary() {
+        requestFrom("10.0.0.1");
+        currentDatabase(readWrite);
+        assertThat(currentDatabase(readOnly)).isEqualTo("PRIMARY");
+
+        authenticate("writer");
+        assertThat(currentDatabase(readOnly)).isEqualTo("PRIMARY");
+
+        SecurityContextHolder.clearContext();
+        requestFrom("10.0.0.2");
+        assertThat(currentDatabase(readOnly)).startsWith("REPLICA");
+    }
+
+    @Test
+    public void whenWrittenOnAnotherThread_thenSubmittingUserReadsFromPrimary()
+        throws InterruptedException {
+        authenticate("writer");
+        Thread worker = new Thread(
+            ReadWriteRoutingDataSource.propagateClient(() -> currentDatabase(readWrite)));
+        worker.start();
+        worker.join();
+        assertThat(currentDatabase(readOnly)).isEqualTo("PRIMARY");
+    }
+
+    private String currentDatabase(TransactionTemplate transaction) {
+        return transaction.execute(
+            status -> jdbcTemplate.queryForObject("SELECT DATABASE()", String.class));
+    }
+
+    private void requestFrom(String address) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(address);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    private void authenticate(String userName) {
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(userName, null, Collections.emptyList()));
+    }
+
+    private static DataSource database(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa",
+            "");
+    }
+}
@@ -2,7 +2,13 @@ package wolox.training.controllers;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -11,23 +17,42 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
+import java.util.Collections;
 import java.util.Optional;
+import java.util.function.Supplier;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import wolox.training.dto.BookSummary;
+import wolox.training.dto.ResourceVersion;
+import wolox.training.exceptions.BookNotFoundException;
+import wolox.training.exceptions.ResourceModifiedException;
 import wolox.training.models.Book;
+import wolox.training.providers.CustomAuthenticationProvider;
 import wolox.training.repositories.BookRepository;
+import wolox.training.repositories.KeysetPaginator;
+import wolox.training.repositories.ProjectionPaginator;
+import wolox.training.services.BookImportService;
+import wolox.training.services.BookSearchService;
+import wolox.training.services.BookService;
+import wolox.training.services.OpenLibraryService;
+import wolox.training.services.PrimaryReadService;
+import wolox.training.services.ReplicaReadService;
 
 @RunWith(SpringRunner.class)
+@WithMockUser
 @WebMvcTest(BookController.class)
 public class BookControllerTest {
 
@@ -37,26 +62,64 @@ public class BookControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @MockBean
+    private CustomAuthenticationProvider customAuthenticationProvider;
+
     @MockBean
     private BookRepository bookRepository;
+
+    @MockBean
+    private KeysetPaginator keysetPaginator;
+
+    @MockBean
+    private ProjectionPaginator projectionPaginator;
+
+    @MockBean
+    private OpenLibraryService openLibraryService;
+
+    @MockBean
+    private BookImportService bookImportService;
+
+    @MockBean
+    private BookSearchService bookSearchService;
+
+    @MockBean
+    private BookService bookService;
+
+    @MockBean
+    private PrimaryReadService primaryReadService;
+
+    @MockBean
+    private ReplicaReadService replicaReadService;
+
     private Book book;
 
     @Before
     public void setUp() {
+        given(primaryReadService.read(any()))
+            .willAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        given(replicaReadService.read(any()))
+            .willAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
         book = new Book(1, "Social science fiction", "George Orwell",
             "image.jpg", "1984", "Nineteen Eighty Four",
             "Debolsillo", "1948", "9788499890944", 309);
+        given(bookRepository.findVersionById(1L))
+            .willReturn(Optional.of(new ResourceVersion(0L, Instant.parse("2020-05-01T10:00:00Z"))));
+        given(bookRepository.findCatalogVersion()).willReturn(new ResourceVersion(1L));
     }
 
     @Test
     public void givenBooks_whenGetBooks_thenReturnJsonArray() throws Exception {
-        List<Book> allBooks = Arrays.asList(book);
-        given(bookRepository.findAll()).willReturn(allBooks);
+        BookSummary summary = new BookSummary(book.getId(), book.getGenre(), book.getAuthor(),
+            book.getImage(), book.getTitle(), book.getSubtitle(), book.getPublisher(),
+            book.getYear(), book.getPages(), book.getIsbn(), 0L, null);
+        given(projectionPaginator.find(eq(Book.class), eq(BookSummary.class), any(), any(),
+            any())).willReturn(new PageImpl<>(Arrays.asList(summary)));
         mvc.perform(get("/api/books")
             .contentType(MediaType.APPLICATION_JSON))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$", hasSize(1)))
-            .andExpect(jsonPath("$[0].author", is(book.getAuthor())));
+            .andExpect(jsonPath("$.content", hasSize(1)))
+            .andExpect(jsonPath("$.content[0].author", is(book.getAuthor())));
     }
 
     @Test
@@ -68,6 +131,26 @@ public class BookControllerTest {
             .andExpect(jsonPath("$.author", is(book.getAuthor())));
     }
 
+    @Test
+    public void givenUnchangedBook_whenGetBookWithETag_thenReturnNotModified() throws Exception {
+        mvc.perform(get("/api/books/1")
+            .header(HttpHeaders.IF_NONE_MATCH, "\"0\"")
+            .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isNotModified());
+        verify(bookRepository, never()).findById(1L);
+    }
+
+    @Test
+    public void givenStaleETag_whenUpdatesBook_thenReturnPreconditionFailed() throws Exception {
+        willThrow(new ResourceModifiedException()).given(bookService)
+            .updateBook(eq(1L), any(), eq(Collections.singleton(7L)));
+        mvc.perform(put("/api/books/1")
+            .header(HttpHeaders.IF_MATCH, "\"7\"")
+            .content(objectMapper.writeValueAsString(book))
+            .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     public void givenAValidBook_whenCreatesABook_thenReturnJson() throws Exception {
         mvc.perform(post("/api/books/")
@@ -97,12 +180,12 @@ public class BookControllerTest {
 
     @Test
     public void givenNoneBook_whenGetBooks_thenReturnEmptyJsonArray() throws Exception {
-        List<Book> allBooks = new ArrayList<Book>();
-        given(bookRepository.findAll()).willReturn(allBooks);
+        given(projectionPaginator.find(eq(Book.class), eq(BookSummary.class), any(), any(),
+            any())).willReturn(new PageImpl<>(new ArrayList<BookSummary>()));
         mvc.perform(get("/api/books")
             .contentType(MediaType.APPLICATION_JSON))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$", hasSize(0)));
+            .andExpect(jsonPath("$.content", hasSize(0)));
     }
 
     @Test
@@ -124,9 +207,18 @@ public class BookControllerTest {
 
     @Test
     public void givenAnInvalidId_whenDeletesBook_thenReturnNotFound() throws Exception {
-        given(bookRepository.findById(1L)).willReturn(Optional.of(book));
+        willThrow(new BookNotFoundException()).given(bookService).deleteBook(3L);
         mvc.perform(delete("/api/books/3")
             .contentType(MediaType.APPLICATION_JSON))
             .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void givenASizeOverTheLimit_whenFindsBooks_thenReturnBadRequest() throws Exception {
+        mvc.perform(get("/api/books/find?q=orwell&size=101")
+            .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest())
+            .andExpect(status().reason("Page size must be between 1 and 100"));
+        verify(bookSearchService, never()).search(any(), any(), any(), any(), anyInt());
+    }
+}
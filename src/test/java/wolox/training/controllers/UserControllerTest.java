@@ -2,35 +2,60 @@ package wolox.training.controllers;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import wolox.training.dto.ResourceVersion;
+import wolox.training.dto.UserSummary;
+import wolox.training.exceptions.BookIdMismatchException;
+import wolox.training.exceptions.UserIdMismatchException;
+import wolox.training.exceptions.UserNotFoundException;
 import wolox.training.models.Book;
 import wolox.training.models.User;
+import wolox.training.providers.CustomAuthenticationProvider;
 import wolox.training.repositories.BookRepository;
+import wolox.training.repositories.KeysetPaginator;
+import wolox.training.repositories.ProjectionPaginator;
 import wolox.training.repositories.UserRepository;
+import wolox.training.services.PrimaryReadService;
+import wolox.training.services.ReplicaReadService;
+import wolox.training.services.UserService;
 
 @RunWith(SpringRunner.class)
+@WithMockUser
 @WebMvcTest(UserController.class)
 public class UserControllerTest {
 
@@ -40,36 +65,64 @@ public class UserControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @MockBean
+    private CustomAuthenticationProvider customAuthenticationProvider;
+
     @MockBean
     private BookRepository bookRepository;
 
     @MockBean
     private UserRepository userRepository;
+
+    @MockBean
+    private KeysetPaginator keysetPaginator;
+
+    @MockBean
+    private ProjectionPaginator projectionPaginator;
+
+    @MockBean
+    private UserService userService;
+
+    @MockBean
+    private PrimaryReadService primaryReadService;
+
+    @MockBean
+    private ReplicaReadService replicaReadService;
     private User user;
     private Book book;
 
     @Before
     public void setUp() {
+        given(primaryReadService.read(any()))
+            .willAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        given(replicaReadService.read(any()))
+            .willAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
         book = new Book(1, "Social science fiction", "George Orwell",
             "image.jpg", "1984", "Nineteen Eighty Four",
             "Debolsillo", "1948", "9788499890944", 309);
         user = new User((long) 1, "Zurdo", "Santiago", LocalDate.parse("1993-08-11"));
+        given(userRepository.findVersionById(1L)).willReturn(Optional.of(
+            new ResourceVersion(0L, Instant.parse("2020-05-01T10:00:00Z"), 0L, null)));
+        given(userRepository.findDirectoryVersion()).willReturn(new ResourceVersion(1L));
+        given(bookRepository.findCatalogVersion()).willReturn(new ResourceVersion(1L));
     }
 
     @Test
     public void givenUsers_whenGetUsers_thenReturnJsonArray() throws Exception {
-        List<User> allUsers = Arrays.asList(user);
-        given(userRepository.findAll()).willReturn(allUsers);
+        UserSummary summary = new UserSummary(user.getId(), user.getUserName(), user.getName(),
+            user.getBirthDate(), 0L, null);
+        given(projectionPaginator.find(eq(User.class), eq(UserSummary.class), any(), any(),
+            any())).willReturn(new PageImpl<>(Arrays.asList(summary)));
         mvc.perform(get("/api/users")
             .contentType(MediaType.APPLICATION_JSON))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$", hasSize(1)))
-            .andExpect(jsonPath("$[0].name", is(user.getName())));
+            .andExpect(jsonPath("$.content", hasSize(1)))
+            .andExpect(jsonPath("$.content[0].name", is(user.getName())));
     }
 
     @Test
     public void givenUser_whenGetUser_thenReturnJson() throws Exception {
-        given(userRepository.findById(1L)).willReturn(Optional.of(user));
+        given(userRepository.findWithBooksById(1L)).willReturn(Optional.of(user));
         mvc.perform(get("/api/users/1")
             .contentType(MediaType.APPLICATION_JSON))
             .andExpect(status().isOk())
@@ -78,10 +131,16 @@ public class UserControllerTest {
 
     @Test
     public void givenAValidUser_whenCreatesAUser_thenReturnJson() throws Exception {
-        mvc.perform(post("/api/users/")
+        given(userService.createUser(any(User.class)))
+            .willReturn(CompletableFuture.completedFuture(user));
+        MvcResult result = mvc.perform(post("/api/users/")
             .content(objectMapper.writeValueAsString(user))
             .contentType(MediaType.APPLICATION_JSON))
-            .andExpect(status().isCreated());
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mvc.perform(asyncDispatch(result))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.name", is(user.getName())));
     }
 
     @Test
@@ -106,8 +165,7 @@ public class UserControllerTest {
 
     @Test
     public void givenUser_whenAddingBook_thenReturnOk() throws Exception {
-        given(bookRepository.findById(1L)).willReturn(Optional.of(book));
-        given(userRepository.findById(1L)).willReturn(Optional.of(user));
+        given(userService.addBook(1L, 1L)).willReturn(user);
         mvc.perform(post("/api/users/1/books/1")
             .contentType(MediaType.APPLICATION_JSON))
             .andExpect(status().isOk());
@@ -115,7 +173,7 @@ public class UserControllerTest {
 
     @Test
     public void givenUserAndNoneBook_whenAddingBook_thenReturnBadRequest() throws Exception {
-        given(userRepository.findById(1L)).willReturn(Optional.of(user));
+        given(userService.addBook(1L, 1L)).willThrow(new BookIdMismatchException());
         mvc.perform(post("/api/users/1/books/1")
             .contentType(MediaType.APPLICATION_JSON))
             .andExpect(status().isBadRequest());
@@ -123,7 +181,7 @@ public class UserControllerTest {
 
     @Test
     public void givenBookAndNoneUser_whenAddingBook_thenReturnBadRequest() throws Exception {
-        given(bookRepository.findById(1L)).willReturn(Optional.of(book));
+        given(userService.addBook(1L, 1L)).willThrow(new UserIdMismatchException());
         mvc.perform(post("/api/users/1/books/1")
             .contentType(MediaType.APPLICATION_JSON))
             .andExpect(status().isBadRequest());
@@ -131,8 +189,7 @@ public class UserControllerTest {
 
     @Test
     public void givenUser_whenDeletingBook_thenReturnOk() throws Exception {
-        given(bookRepository.findById(1L)).willReturn(Optional.of(book));
-        given(userRepository.findById(1L)).willReturn(Optional.of(user));
+        given(userService.removeBook(1L, 1L)).willReturn(user);
         mvc.perform(delete("/api/users/1/books/1")
             .contentType(MediaType.APPLICATION_JSON))
             .andExpect(status().isOk());
@@ -140,7 +197,7 @@ public class UserControllerTest {
 
     @Test
     public void givenUserAndNoneBooK_whenDeletingBook_thenReturnBadRequest() throws Exception {
-        given(userRepository.findById(1L)).willReturn(Optional.of(user));
+        given(userService.removeBook(1L, 1L)).willThrow(new BookIdMismatchException());
         mvc.perform(delete("/api/users/1/books/1")
             .contentType(MediaType.APPLICATION_JSON))
             .andExpect(status().isBadRequest());
@@ -148,7 +205,7 @@ public class UserControllerTest {
 
     @Test
     public void givenBookAndNoneUser_whenDeletingBook_thenReturnBadRequest() throws Exception {
-        given(bookRepository.findById(1L)).willReturn(Optional.of(book));
+        given(userService.removeBook(1L, 1L)).willThrow(new UserIdMismatchException());
         mvc.perform(delete("/api/users/1/books/1")
             .contentType(MediaType.APPLICATION_JSON))
             .andExpect(status().isBadRequest());
@@ -156,12 +213,12 @@ public class UserControllerTest {
 
     @Test
     public void givenNoneUser_whenGetUsers_thenReturnEmptyJsonArray() throws Exception {
-        List<User> allUsers = new ArrayList<User>();
-        given(userRepository.findAll()).willReturn(allUsers);
+        given(projectionPaginator.find(eq(User.class), eq(UserSummary.class), any(), any(),
+            any())).willReturn(new PageImpl<>(new ArrayList<UserSummary>()));
         mvc.perform(get("/api/users")
             .contentType(MediaType.APPLICATION_JSON))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$", hasSize(0)));
+            .andExpect(jsonPath("$.content", hasSize(0)));
     }
 
     @Test
@@ -183,10 +240,31 @@ public class UserControllerTest {
 
     @Test
     public void givenAnInvalidId_whenDeletesUser_thenReturnNotFound() throws Exception {
-        given(userRepository.findById(1L)).willReturn(Optional.of(user));
+        willThrow(new UserNotFoundException()).given(userService).deleteUser(12L);
         mvc.perform(delete("/api/users/12")
             .contentType(MediaType.APPLICATION_JSON))
             .andExpect(status().isNotFound());
     }
 
+    @Test
+    public void givenSaturatedPasswordVerification_whenLogsIn_thenReturnServiceUnavailable()
+        throws Exception {
+        given(customAuthenticationProvider.supports(any())).willReturn(true);
+        given(customAuthenticationProvider.authenticate(any()))
+            .willThrow(new AuthenticationServiceException("Password verification is saturated"));
+        mvc.perform(get("/api/users/1")
+            .with(httpBasic("Rulo", "password")))
+            .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    public void givenWrongPassword_whenLogsIn_thenReturnUnauthorized() throws Exception {
+        given(customAuthenticationProvider.supports(any())).willReturn(true);
+        given(customAuthenticationProvider.authenticate(any()))
+            .willThrow(new BadCredentialsException("Bad credentials"));
+        mvc.perform(get("/api/users/1")
+            .with(httpBasic("Rulo", "wrong")))
+            .andExpect(status().isUnauthorized());
+    }
+
 }
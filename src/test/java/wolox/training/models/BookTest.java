@@ -2,7 +2,9 @@ package wolox.training.models;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -41,6 +43,25 @@ public class BookTest {
         assertThat(bookFound.get(0)).isEqualToComparingFieldByField(book);
     }
 
+    @Test
+    public void givenNewBookInSet_whenPersisted_thenSetStillContainsIt() {
+        Set<Book> books = new HashSet<>();
+        books.add(book);
+        entityManager.persistAndFlush(book);
+        assertThat(books.contains(book)).isTrue();
+        assertThat(books.remove(book)).isTrue();
+    }
+
+    @Test
+    public void whenFindByIsbn_thenReturnBookThroughNaturalId() {
+        entityManager.persist(book);
+        entityManager.flush();
+        entityManager.clear();
+        assertThat(bookRepository.findByIsbn(book.getIsbn()))
+            .hasValueSatisfying(found -> assertThat(found.getId()).isEqualTo(book.getId()));
+        assertThat(bookRepository.findByIsbn("0000000000")).isEmpty();
+    }
+
     @Test(expected = NullPointerException.class)
     public void whenCreateBookWithoutAuthor_thenThrowException() {
         book.setAuthor(null);
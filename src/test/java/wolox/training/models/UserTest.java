@@ -1,9 +1,17 @@
 package wolox.training.models;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -11,11 +19,20 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.junit4.SpringRunner;
+import wolox.training.dto.UserSummary;
+import wolox.training.exceptions.BookAlreadyOwnedException;
+import wolox.training.repositories.ProjectionPaginator;
 import wolox.training.repositories.UserRepository;
+import wolox.training.repositories.UserSpecifications;
 
 @RunWith(SpringRunner.class)
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(ProjectionPaginator.class)
 public class UserTest {
 
     @Autowired
@@ -24,6 +41,12 @@ public class UserTest {
     @Autowired
     UserRepository userRepository;
 
+    @Autowired
+    ProjectionPaginator projectionPaginator;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
     @MockBean
     private User user;
 
@@ -34,12 +57,113 @@ public class UserTest {
 
     @Test
     public void whenFindByName_thenReturnUser() {
+        user.setPassword("password");
         entityManager.persist(user);
         entityManager.flush();
         Optional<User> userFound = userRepository.findByUserName(user.getUserName());
         assertThat(userFound.get()).usingRecursiveComparison().isEqualTo(user);
     }
 
+    @Test
+    public void whenUpdateWithVersions_thenOnlyMatchingVersionChangesRow() {
+        user.setPassword("password");
+        entityManager.persistAndFlush(user);
+        User changes = new User("Rulo", "Raul", LocalDate.parse("2001-02-03"));
+        assertThat(userRepository.updateUser(user.getId(), changes,
+            Collections.singleton(user.getVersion() + 1), Instant.now())).isZero();
+        assertThat(userRepository.updateUser(user.getId(), changes,
+            Collections.singleton(user.getVersion()), Instant.now())).isEqualTo(1);
+        entityManager.clear();
+        User updated = entityManager.find(User.class, user.getId());
+        assertThat(updated.getName()).isEqualTo("Raul");
+        assertThat(updated.getVersion()).isEqualTo(user.getVersion() + 1);
+    }
+
+    @Test
+    public void whenChangingCollection_thenReportRowsChanged() {
+        user.setPassword("password");
+        entityManager.persist(user);
+        Book book = entityManager.persistAndFlush(new Book("Social science fiction",
+            "George Orwell", "image.jpg", "1984", "Nineteen Eighty Four", "Debolsillo", "1948",
+            "9788499890944", 309));
+        assertThat(userRepository.addBook(user.getId(), book.getId() + 1000)).isZero();
+        assertThat(userRepository.addBook(user.getId() + 1000, book.getId())).isZero();
+        assertThat(userRepository.addBook(user.getId(), book.getId())).isEqualTo(1);
+        assertThatThrownBy(() -> userRepository.addBook(user.getId(), book.getId()))
+            .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(userRepository.removeBook(user.getId(), book.getId())).isEqualTo(1);
+        assertThat(userRepository.removeBook(user.getId(), book.getId())).isZero();
+    }
+
+    @Test
+    public void whenJoinTableChanges_thenDirectoryVersionChanges() {
+        user.setPassword("password");
+        entityManager.persist(user);
+        Book book = entityManager.persistAndFlush(new Book("Social science fiction",
+            "George Orwell", "image.jpg", "1984", "Nineteen Eighty Four", "Debolsillo", "1948",
+            "9788499890944", 309));
+        String before = userRepository.findDirectoryVersion().getETag();
+        entityManager.getEntityManager().createNativeQuery(
+            "INSERT INTO users_books (user_id, books_id) VALUES (:userId, :bookId)")
+            .setParameter("userId", user.getId())
+            .setParameter("bookId", book.getId())
+            .executeUpdate();
+        assertThat(userRepository.findDirectoryVersion().getETag()).isNotEqualTo(before);
+    }
+
+    @Test
+    public void whenSearchByBirthDateAndName_thenFilterByBoth() {
+        User other = new User("Rulo", "Raul", LocalDate.parse("2001-02-03"));
+        user.setPassword("password");
+        other.setPassword("password");
+        entityManager.persist(user);
+        entityManager.persist(other);
+        entityManager.flush();
+        LocalDate startDate = LocalDate.parse("1990-01-01");
+        LocalDate endDate = LocalDate.parse("2010-01-01");
+        assertThat(userRepository.searchByBirthDateAndName(startDate, endDate, "SANT"))
+            .extracting(UserSummary::getId).containsExactly(user.getId());
+        assertThat(userRepository.searchByBirthDateAndName(startDate, endDate, ""))
+            .extracting(UserSummary::getId).containsExactlyInAnyOrder(user.getId(), other.getId());
+        assertThat(userRepository.searchByBirthDateAndName(startDate,
+            LocalDate.parse("2000-01-01"), "")).extracting(UserSummary::getId)
+            .containsExactly(user.getId());
+    }
+
+    @Test
+    public void whenListingUsersWithBooks_thenQueryCountDoesNotGrowWithPageSize() {
+        for (int i = 0; i < 10; i++) {
+            Book book = new Book("Title " + i, "Author", "Genre", "image.jpg", "Subtitle",
+                "2000", "Publisher", "isbn-" + i, 100);
+            entityManager.persist(book);
+            User reader = new User("reader" + i, "Reader " + i, LocalDate.parse("1990-01-01"));
+            reader.setPassword("password");
+            reader.addBook(book);
+            entityManager.persist(reader);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class)
+            .getStatistics();
+
+        statistics.clear();
+        userRepository.withBooks(listUsers(PageRequest.of(0, 2)))
+            .forEach(reader -> assertThat(reader.getBooks()).hasSize(1));
+        long smallPage = statistics.getPrepareStatementCount();
+        entityManager.clear();
+
+        statistics.clear();
+        userRepository.withBooks(listUsers(PageRequest.of(0, 8)))
+            .forEach(reader -> assertThat(reader.getBooks()).hasSize(1));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(smallPage);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    private List<UserSummary> listUsers(Pageable pageable) {
+        return projectionPaginator.find(User.class, UserSummary.class, UserSummary.ATTRIBUTES,
+            UserSpecifications.withFilter(null, null, null, null), pageable).getContent();
+    }
+
     @Test(expected = NullPointerException.class)
     public void whenCreateUserWithoutUserName_thenThrowException() {
         user.setUserName(null);
@@ -58,4 +182,31 @@ public class UserTest {
         userRepository.save(user);
     }
 
+    @Test(timeout = 2000)
+    public void whenAddingAndDeletingThousandsOfBooks_thenFinishInTime() {
+        User collector = new User(2L, "collector", "Collector", LocalDate.parse("1990-01-01"));
+        List<Book> books = new ArrayList<>();
+        for (long id = 1; id <= 5000; id++) {
+            Book book = new Book(id, "Title " + id, "Author", "Genre", "image.jpg", "Subtitle",
+                "2000", "Publisher", "isbn-" + id, 100);
+            book.getUser().add(collector);
+            books.add(book);
+        }
+        books.forEach(collector::addBook);
+        assertThat(collector.getBooks()).hasSize(books.size());
+        assertThat(collector.toString()).doesNotContain("Title");
+        books.forEach(collector::deleteBook);
+        assertThat(collector.getBooks()).isEmpty();
+    }
+
+    @Test(expected = BookAlreadyOwnedException.class)
+    public void whenAddingSameBookTwice_thenThrowException() {
+        user.addBook(new Book(1, "Social science fiction", "George Orwell",
+            "image.jpg", "1984", "Nineteen Eighty Four",
+            "Debolsillo", "1948", "9788499890944", 309));
+        user.addBook(new Book(1, "Social science fiction", "George Orwell",
+            "image.jpg", "1984", "Nineteen Eighty Four",
+            "Debolsillo", "1948", "9788499890944", 309));
+    }
+
 }
@@ -0,0 +1,94 @@
+package wolox.training.monitoring;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import wolox.training.models.Book;
+import wolox.training.models.User;
+import wolox.training.repositories.BookRepository;
+import wolox.training.repositories.UserRepository;
+
+/**
+ * Statement budgets of the read endpoints, counted by {@link SqlStatementFilter} against the
+ * embedded database with the real repositories and caches behind the controllers.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "sqlTracking.headers=true")
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@WithMockUser
+public class SqlStatementBudgetTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Book book;
+
+    private User user;
+
+    @Before
+    public void setUp() {
+        book = bookRepository.save(new Book("Social science fiction", "George Orwell",
+            "image.jpg", "1984", "Nineteen Eighty Four", "Debolsillo", "1948",
+            "9788499890944", 309));
+        Book other = bookRepository.save(new Book("Dystopia", "Aldous Huxley", "image.jpg",
+            "Brave New World", "A novel", "Chatto & Windus", "1932", "9780060850524", 288));
+        user = new User("Zurdo", "Santiago", LocalDate.parse("1993-08-11"));
+        user.setPassword("password");
+        user = userRepository.save(user);
+        userRepository.addBook(user.getId(), book.getId());
+        userRepository.addBook(user.getId(), other.getId());
+    }
+
+    @After
+    public void tearDown() {
+        userRepository.deleteAll();
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    public void whenListBooks_thenStayWithinBudget() throws Exception {
+        mvc.perform(get("/api/books"))
+            .andExpect(status().isOk())
+            .andExpect(SqlStatements.atMost(3));
+    }
+
+    @Test
+    public void whenFindBook_thenStayWithinBudget() throws Exception {
+        mvc.perform(get("/api/books/" + book.getId()))
+            .andExpect(status().isOk())
+            .andExpect(SqlStatements.atMost(2));
+    }
+
+    @Test
+    public void whenListUsers_thenStayWithinBudget() throws Exception {
+        mvc.perform(get("/api/users"))
+            .andExpect(status().isOk())
+            .andExpect(SqlStatements.atMost(5));
+    }
+
+    @Test
+    public void whenFindUser_thenStayWithinBudget() throws Exception {
+        mvc.perform(get("/api/users/" + user.getId()))
+            .andExpect(status().isOk())
+            .andExpect(SqlStatements.atMost(2));
+    }
+}
@@ -0,0 +1,24 @@
+package wolox.training.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+/**
+ * MockMvc expectations on the statement count reported by {@link SqlStatementFilter}.
+ */
+public final class SqlStatements {
+
+    private SqlStatements() {
+    }
+
+    public static ResultMatcher atMost(long budget) {
+        return result -> {
+            String statements = result.getResponse()
+                .getHeader(SqlStatementFilter.STATEMENTS_HEADER);
+            assertThat(statements).as("SQL statement header").isNotNull();
+            assertThat(Long.parseLong(statements)).as("SQL statements")
+                .isLessThanOrEqualTo(budget);
+        };
+    }
+}
@@ -0,0 +1,161 @@
+package wolox.training.providers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import wolox.training.config.PasswordEncoderConfig;
+import wolox.training.models.User;
+import wolox.training.repositories.UserRepository;
+import wolox.training.services.CredentialCacheService;
+import wolox.training.services.PasswordEncoderService;
+import wolox.training.services.PrimaryReadService;
+import wolox.training.services.UserService;
+
+public class CustomAuthenticationProviderTest {
+
+    private static final String PASSWORD = "password";
+    private static final int STRENGTH = 5;
+
+    private CustomAuthenticationProvider customAuthenticationProvider;
+
+    private PasswordEncoderService passwordEncoderService;
+
+    private UserRepository userRepository;
+
+    private UserService userService;
+
+    private ThreadPoolTaskExecutor passwordHashingExecutor;
+
+    private User user;
+
+    @Before
+    public void setUp() {
+        PasswordEncoderConfig config = new PasswordEncoderConfig();
+        ReflectionTestUtils.setField(config, "algorithm", PasswordEncoderConfig.BCRYPT);
+        ReflectionTestUtils.setField(config, "bcryptStrength", STRENGTH);
+        ReflectionTestUtils.setField(config, "pbkdf2Iterations", 1000);
+        passwordHashingExecutor = new ThreadPoolTaskExecutor();
+        passwordHashingExecutor.initialize();
+        passwordEncoderService = new PasswordEncoderService();
+        ReflectionTestUtils.setField(passwordEncoderService, "passwordEncoder",
+            config.passwordEncoder());
+        ReflectionTestUtils.setField(passwordEncoderService, "passwordHashingExecutor",
+            passwordHashingExecutor);
+        ReflectionTestUtils.setField(passwordEncoderService, "meterRegistry",
+            new SimpleMeterRegistry());
+        passwordEncoderService.init();
+
+        userRepository = mock(UserRepository.class);
+        userService = mock(UserService.class);
+        PrimaryReadService primaryReadService = mock(PrimaryReadService.class);
+        given(primaryReadService.read(any()))
+            .willAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        user = new User("Rulo", "Raul", LocalDate.parse("2001-02-03"));
+        given(userRepository.findByUserName("Rulo")).willReturn(Optional.of(user));
+        given(userService.updateUserPassword(any(), anyString()))
+            .willReturn(CompletableFuture.completedFuture(user));
+
+        customAuthenticationProvider = new CustomAuthenticationProvider();
+        ReflectionTestUtils.setField(customAuthenticationProvider, "userRepository",
+            userRepository);
+        ReflectionTestUtils.setField(customAuthenticationProvider, "passwordEncoderService",
+            passwordEncoderService);
+        ReflectionTestUtils.setField(customAuthenticationProvider, "credentialCacheService",
+            mock(CredentialCacheService.class));
+        ReflectionTestUtils.setField(customAuthenticationProvider, "userService", userService);
+        ReflectionTestUtils.setField(customAuthenticationProvider, "primaryReadService",
+            primaryReadService);
+    }
+
+    @After
+    public void tearDown() {
+        passwordHashingExecutor.shutdown();
+    }
+
+    @Test
+    public void givenLowCostHash_whenLoginSucceeds_thenUpgradeIt() {
+        user.setPassword("{bcrypt}" + new BCryptPasswordEncoder(STRENGTH - 1).encode(PASSWORD));
+
+        assertThat(customAuthenticationProvider.authenticate(login())).isNotNull();
+        verify(userService).updateUserPassword(user, PASSWORD);
+    }
+
+    @Test
+    public void givenCurrentCostHash_whenLoginSucceeds_thenLeaveIt() {
+        user.setPassword(passwordEncoderService.encode(PASSWORD));
+
+        assertThat(customAuthenticationProvider.authenticate(login())).isNotNull();
+        verify(userService, never()).updateUserPassword(any(), anyString());
+    }
+
+    @Test
+    public void givenSaturatedHashingPool_whenLogin_thenFailAsServiceUnavailable()
+        throws InterruptedException {
+        user.setPassword(passwordEncoderService.encode(PASSWORD));
+        passwordHashingExecutor.shutdown();
+        passwordHashingExecutor = new ThreadPoolTaskExecutor();
+        passwordHashingExecutor.setCorePoolSize(1);
+        passwordHashingExecutor.setMaxPoolSize(1);
+        passwordHashingExecutor.setQueueCapacity(0);
+        passwordHashingExecutor.initialize();
+        ReflectionTestUtils.setField(passwordEncoderService, "passwordHashingExecutor",
+            passwordHashingExecutor);
+        CountDownLatch release = new CountDownLatch(1);
+        passwordHashingExecutor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        try {
+            assertThatThrownBy(() -> customAuthenticationProvider.authenticate(login()))
+                .isInstanceOf(AuthenticationServiceException.class);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void givenVerificationRejectedLater_whenLogin_thenFailAsServiceUnavailable() {
+        user.setPassword(passwordEncoderService.encode(PASSWORD));
+        PasswordEncoderService rejecting = spy(passwordEncoderService);
+        CompletableFuture<Boolean> rejected = new CompletableFuture<>();
+        rejected.completeExceptionally(new RejectedExecutionException("hashing pool full"));
+        willReturn(rejected).given(rejecting).matchesAsync(any(), anyString());
+        ReflectionTestUtils.setField(customAuthenticationProvider, "passwordEncoderService",
+            rejecting);
+
+        assertThatThrownBy(() -> customAuthenticationProvider.authenticate(login()))
+            .isInstanceOf(AuthenticationServiceException.class)
+            .hasCauseInstanceOf(RejectedExecutionException.class);
+    }
+
+    private static UsernamePasswordAuthenticationToken login() {
+        return new UsernamePasswordAuthenticationToken("Rulo", PASSWORD);
+    }
+}
@@ -0,0 +1,119 @@
+package wolox.training.repositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit4.SpringRunner;
+import wolox.training.dto.BookSummary;
+import wolox.training.dto.KeysetPage;
+import wolox.training.exceptions.InvalidPageRequestException;
+import wolox.training.exceptions.InvalidPageSizeException;
+import wolox.training.models.Book;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Import(KeysetPaginator.class)
+public class KeysetPaginatorTest {
+
+    private static final Set<String> SORT_KEYS = new HashSet<>(
+        Arrays.asList("id", "title", "author"));
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private KeysetPaginator keysetPaginator;
+
+    private List<Book> books;
+
+    @Before
+    public void setUp() {
+        books = new ArrayList<>();
+        String[] authors = {"Orwell", "Huxley", "Orwell", "Bradbury", "Orwell"};
+        for (int i = 0; i < authors.length; i++) {
+            books.add(entityManager.persist(new Book("Title " + i, authors[i], "Genre",
+                "image.jpg", "Subtitle", "2000", "Publisher", "isbn-" + i, 100)));
+        }
+        entityManager.flush();
+    }
+
+    @Test
+    public void givenDuplicateSortValues_whenWalkingPages_thenBreakTiesById() {
+        List<Long> expected = books.stream()
+            .sorted((a, b) -> a.getAuthor().equals(b.getAuthor())
+                ? Long.compare(b.getId(), a.getId()) : b.getAuthor().compareTo(a.getAuthor()))
+            .map(Book::getId).collect(Collectors.toList());
+
+        assertThat(walk("author", "desc", 2)).isEqualTo(expected);
+    }
+
+    @Test
+    public void whenLastPage_thenNoNextCursor() {
+        KeysetPage<BookSummary> first = page("id", "asc", null, 3);
+        assertThat(first.getContent()).hasSize(3);
+        assertThat(first.getNextCursor()).isNotNull();
+
+        KeysetPage<BookSummary> last = page("id", "asc", first.getNextCursor(), 3);
+        assertThat(last.getContent()).hasSize(2);
+        assertThat(last.getNextCursor()).isNull();
+
+        KeysetPage<BookSummary> exact = page("id", "asc", null, books.size());
+        assertThat(exact.getContent()).hasSize(books.size());
+        assertThat(exact.getNextCursor()).isNull();
+    }
+
+    @Test
+    public void whenCursorIsDecoded_thenItHoldsTheLastSortValueAndId() {
+        KeysetPage<BookSummary> first = page("title", "asc", null, 2);
+        BookSummary last = first.getContent().get(1);
+        assertThat(new String(Base64.getUrlDecoder().decode(first.getNextCursor())))
+            .isEqualTo("title\n" + last.getTitle() + "\n" + last.getId());
+    }
+
+    @Test(expected = InvalidPageRequestException.class)
+    public void givenCursorOfAnotherSortKey_whenFind_thenThrowException() {
+        String cursor = page("title", "asc", null, 2).getNextCursor();
+        page("author", "asc", cursor, 2);
+    }
+
+    @Test(expected = InvalidPageRequestException.class)
+    public void givenMalformedCursor_whenFind_thenThrowException() {
+        page("title", "asc", "not a cursor", 2);
+    }
+
+    @Test(expected = InvalidPageSizeException.class)
+    public void givenSizeOverTheLimit_whenFind_thenThrowException() {
+        page("title", "asc", null, Integer.MAX_VALUE);
+    }
+
+    private List<Long> walk(String sortKey, String direction, int size) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            KeysetPage<BookSummary> page = page(sortKey, direction, cursor, size);
+            page.getContent().forEach(book -> ids.add(book.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+
+    private KeysetPage<BookSummary> page(String sortKey, String direction, String cursor,
+        int size) {
+        return keysetPaginator.find(Book.class, BookSummary.class, BookSummary.ATTRIBUTES,
+            BookSpecifications.withFilter(null, null, null, null, null, null, null, null, null),
+            SORT_KEYS, sortKey, direction, cursor, size, false);
+    }
+}
@@ -0,0 +1,163 @@
+package wolox.training.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+import wolox.training.clients.OpenLibraryClient;
+import wolox.training.dto.BookImportStatus;
+import wolox.training.dto.BookImportStatus.State;
+import wolox.training.dto.OpenLibraryBook;
+import wolox.training.models.Book;
+import wolox.training.repositories.BookRepository;
+
+public class BookImportServiceTest {
+
+    private static final String ORWELL = "9788499890944";
+    private static final String HUXLEY = "0060850523";
+    private static final String BRADBURY = "9781451673319";
+
+    private BookImportService bookImportService;
+
+    private BookRepository bookRepository;
+
+    private OpenLibraryClient openLibraryClient;
+
+    @Before
+    public void setUp() {
+        bookRepository = mock(BookRepository.class);
+        openLibraryClient = mock(OpenLibraryClient.class);
+        OpenLibraryService openLibraryService = mock(OpenLibraryService.class);
+        ThreadPoolTaskExecutor bookImportExecutor = mock(ThreadPoolTaskExecutor.class);
+        given(openLibraryService.toBook(any())).willAnswer(invocation -> {
+            Book book = new Book();
+            book.setIsbn(invocation.<OpenLibraryBook>getArgument(0).getIsbn());
+            return book;
+        });
+        willAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).given(bookImportExecutor).execute(any(Runnable.class));
+        given(bookRepository.findExistingIsbns(anyCollection())).willReturn(
+            Collections.emptySet());
+
+        bookImportService = new BookImportService();
+        ReflectionTestUtils.setField(bookImportService, "bookRepository", bookRepository);
+        ReflectionTestUtils.setField(bookImportService, "openLibraryClient", openLibraryClient);
+        ReflectionTestUtils.setField(bookImportService, "openLibraryService", openLibraryService);
+        ReflectionTestUtils.setField(bookImportService, "bookImportExecutor", bookImportExecutor);
+        ReflectionTestUtils.setField(bookImportService, "batchSize", 10);
+    }
+
+    @Test
+    public void givenOneBadRow_whenBatchSaveFails_thenOnlyThatRowFails() {
+        given(openLibraryClient.fetchBooks(anyList())).willReturn(found(ORWELL, HUXLEY));
+        given(bookRepository.saveAll(anyList()))
+            .willThrow(new DataIntegrityViolationException("isbn"));
+        given(bookRepository.save(argThat(book -> HUXLEY.equals(book.getIsbn()))))
+            .willThrow(new DataIntegrityViolationException("isbn"));
+
+        BookImportStatus status = bookImportService.start(Arrays.asList(ORWELL, HUXLEY));
+
+        assertThat(status.getState()).isEqualTo(State.COMPLETED);
+        assertThat(status.getImported()).hasValue(1);
+        assertThat(status.getProcessed()).hasValue(2);
+        assertThat(status.getFailures())
+            .containsOnlyKeys(HUXLEY)
+            .containsValue("DataIntegrityViolationException");
+    }
+
+    @Test
+    public void givenBookMissingFromOpenLibrary_whenBatchSaveFails_thenKeepNotFoundReason() {
+        given(openLibraryClient.fetchBooks(anyList())).willReturn(found(ORWELL));
+        given(bookRepository.saveAll(anyList()))
+            .willThrow(new DataIntegrityViolationException("isbn"));
+
+        BookImportStatus status = bookImportService.start(Arrays.asList(ORWELL, BRADBURY));
+
+        assertThat(status.getImported()).hasValue(1);
+        assertThat(status.getFailures()).containsOnlyKeys(BRADBURY)
+            .containsValue("Not found in OpenLibrary");
+    }
+
+    @Test
+    public void givenInvalidIsbns_whenImported_thenFailWithoutLookup() {
+        given(openLibraryClient.fetchBooks(anyList())).willReturn(found(ORWELL));
+
+        BookImportStatus status = bookImportService.start(
+            Arrays.asList(ORWELL, "978,0000", "12345", null, ORWELL));
+
+        assertThat(status.getTotal()).isEqualTo(3);
+        assertThat(status.getProcessed()).hasValue(3);
+        assertThat(status.getImported()).hasValue(1);
+        assertThat(status.getFailures()).containsOnlyKeys("978,0000", "12345")
+            .containsValue("Invalid ISBN");
+        verify(openLibraryClient).fetchBooks(Collections.singletonList(ORWELL));
+    }
+
+    @Test
+    public void givenHyphenatedIsbns_whenImported_thenNormalizeThem() {
+        given(openLibraryClient.fetchBooks(anyList())).willReturn(found(HUXLEY, "080442957X"));
+
+        BookImportStatus status = bookImportService.start(
+            Arrays.asList("0-06-085052-3", HUXLEY, "080442957x"));
+
+        assertThat(status.getTotal()).isEqualTo(2);
+        assertThat(status.getImported()).hasValue(2);
+        assertThat(status.getFailures()).isEmpty();
+        verify(openLibraryClient).fetchBooks(Arrays.asList(HUXLEY, "080442957X"));
+    }
+
+    @Test
+    public void givenExistingIsbns_whenImported_thenSkipThem() {
+        given(bookRepository.findExistingIsbns(anyCollection()))
+            .willReturn(Collections.singleton(ORWELL));
+        given(openLibraryClient.fetchBooks(anyList())).willReturn(found(HUXLEY));
+
+        BookImportStatus status = bookImportService.start(Arrays.asList(ORWELL, HUXLEY));
+
+        assertThat(status.getSkipped()).hasValue(1);
+        assertThat(status.getImported()).hasValue(1);
+        verify(openLibraryClient).fetchBooks(Collections.singletonList(HUXLEY));
+    }
+
+    @Test
+    public void whenLookupFails_thenBatchFailsAndImportCompletes() {
+        given(openLibraryClient.fetchBooks(anyList()))
+            .willThrow(new ResourceAccessException("timeout"));
+
+        BookImportStatus status = bookImportService.start(Arrays.asList(ORWELL, HUXLEY));
+
+        assertThat(status.getState()).isEqualTo(State.COMPLETED);
+        assertThat(status.getFailures()).containsOnlyKeys(ORWELL, HUXLEY)
+            .containsValue("ResourceAccessException");
+        verify(bookRepository, never()).saveAll(anyList());
+    }
+
+    private static Map<String, OpenLibraryBook> found(String... isbns) {
+        Map<String, OpenLibraryBook> books = new HashMap<>();
+        for (String isbn : isbns) {
+            OpenLibraryBook book = new OpenLibraryBook();
+            book.setIsbn(isbn);
+            books.put(isbn, book);
+        }
+        return books;
+    }
+}
@@ -0,0 +1,85 @@
+package wolox.training.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+import wolox.training.dto.BookSearchResult;
+import wolox.training.models.Book;
+
+public class BookSearchServiceTest {
+
+    private BookSearchService bookSearchService;
+
+    private Book orwell;
+
+    private Book huxley;
+
+    @Before
+    public void setUp() {
+        bookSearchService = new BookSearchService();
+        orwell = new Book(1, "Nineteen Eighty-Four", "George Orwell", "Dystopia", "image.jpg",
+            "A novel", "1949", "Secker & Warburg", "9780451524935", 328);
+        huxley = new Book(2, "Brave New World", "Aldous Huxley", "Dystopia", "image.jpg",
+            "A novel", "1932", "Chatto & Windus", "9780060850524", 288);
+        bookSearchService.index(orwell);
+        bookSearchService.index(huxley);
+    }
+
+    @Test
+    public void whenSearchByPrefix_thenReturnMatchingBooks() {
+        BookSearchResult result = bookSearchService.search("orw", null, null, null, 10);
+        assertThat(result.getContent()).containsExactly(orwell);
+    }
+
+    @Test
+    public void whenSearchWithTypo_thenReturnClosestBooks() {
+        BookSearchResult result = bookSearchService.search("Hux1ey brave", null, null, null, 10);
+        assertThat(result.getContent()).containsExactly(huxley);
+    }
+
+    @Test
+    public void whenFilterByFacet_thenCountRemainingBooks() {
+        BookSearchResult result = bookSearchService.search("novel", "dystopia", "1932", null, 10);
+        assertThat(result.getContent()).containsExactly(huxley);
+        assertThat(result.getTotalElements()).isEqualTo(1);
+        assertThat(result.getFacets().get("publisher")).containsEntry("Chatto & Windus", 1L);
+    }
+
+    @Test
+    public void whenQueryHasNoWords_thenBrowseByFacet() {
+        BookSearchResult result = bookSearchService.search(" , ", "DYSTOPIA", "1949", null, 10);
+        assertThat(result.getContent()).containsExactly(orwell);
+        assertThat(result.getTotalElements()).isEqualTo(1);
+        assertThat(result.getFacets().get("publisher")).containsOnlyKeys("Secker & Warburg");
+    }
+
+    @Test
+    public void whenQueryHasNoWordsNorFacets_thenBrowseByTitle() {
+        BookSearchResult result = bookSearchService.search("", null, null, null, 1);
+        assertThat(result.getContent()).containsExactly(huxley);
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        assertThat(result.getFacets().get("genre")).containsEntry("Dystopia", 2L);
+    }
+
+    @Test
+    public void whenBookRemoved_thenFacetPostingsFollow() {
+        bookSearchService.remove(orwell.getId());
+        assertThat(bookSearchService.search("", null, "1949", null, 10).getContent()).isEmpty();
+        assertThat(bookSearchService.search("", "dystopia", null, null, 10).getContent())
+            .containsExactly(huxley);
+    }
+
+    @Test
+    public void whenBookRemovedOrRenamed_thenIndexFollows() {
+        bookSearchService.remove(orwell.getId());
+        huxley.setTitle("Island");
+        bookSearchService.index(huxley);
+        assertThat(bookSearchService.search("orwell", null, null, null, 10).getContent())
+            .isEmpty();
+        assertThat(bookSearchService.search("brave", null, null, null, 10).getContent())
+            .isEmpty();
+        assertThat(bookSearchService.search("island", null, null, null, 10).getContent())
+            .containsExactly(huxley);
+    }
+}
@@ -0,0 +1,157 @@
+package wolox.training.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import wolox.training.dto.ResourceVersion;
+import wolox.training.exceptions.BookNotFoundException;
+import wolox.training.exceptions.ResourceModifiedException;
+import wolox.training.models.Book;
+import wolox.training.repositories.BookRepository;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(BookService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BookServiceTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private BookSearchService bookSearchService;
+
+    private Statistics statistics;
+
+    private Book book;
+
+    @Before
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // The cache regions are shared by every test context in the JVM.
+        entityManagerFactory.getCache().evictAll();
+        book = bookRepository.save(new Book("Social science fiction", "George Orwell",
+            "image.jpg", "1984", "Nineteen Eighty Four",
+            "Debolsillo", "1948", "9788499890944", 309));
+        statistics.clear();
+    }
+
+    @After
+    public void tearDown() {
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    public void whenUpdateBook_thenUpdateBeforeReadingBack() {
+        Book changes = new Book("Social science fiction", "George Orwell",
+            "image.jpg", "1984", "Nineteen Eighty Four",
+            "Debolsillo", "1948", "9788499890944", 320);
+        Book updated = bookService.updateBook(book.getId(), changes,
+            Collections.singleton(book.getVersion()));
+        assertThat(updated.getPages()).isEqualTo(320);
+        assertThat(updated.getVersion()).isEqualTo(book.getVersion() + 1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenDeleteBook_thenDeleteWithoutReadingFirst() {
+        bookService.deleteBook(book.getId());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(bookRepository.existsById(book.getId())).isFalse();
+    }
+
+    @Test
+    public void whenBookUpdated_thenOnlyItsCacheEntriesAreDropped() {
+        Book other = bookRepository.save(new Book("Dystopia", "Aldous Huxley", "image.jpg",
+            "Brave New World", "", "Harper", "1932", "0060850523", 288));
+        bookRepository.findByIsbn(book.getIsbn());
+        bookRepository.findByIsbn(other.getIsbn());
+        Book changes = new Book("Social science fiction", "Eric Blair", "image.jpg", "1984",
+            "Nineteen Eighty Four", "Debolsillo", "1948", "9780451524935", 309);
+        bookService.updateBook(book.getId(), changes, null);
+        statistics.clear();
+
+        assertThat(bookRepository.findById(other.getId())).isPresent();
+        assertThat(bookRepository.findByIsbn(other.getIsbn())).isPresent();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(bookRepository.findById(book.getId()).get().getAuthor())
+            .isEqualTo("Eric Blair");
+    }
+
+    @Test
+    public void whenIsbnUpdated_thenOldIsbnNoLongerResolves() {
+        bookRepository.findByIsbn(book.getIsbn());
+        Book changes = new Book("Social science fiction", "George Orwell", "image.jpg", "1984",
+            "Nineteen Eighty Four", "Debolsillo", "1948", "9780451524935", 309);
+        bookService.updateBook(book.getId(), changes, null);
+
+        assertThat(bookRepository.findByIsbn(book.getIsbn())).isEmpty();
+        assertThat(bookRepository.findByIsbn("9780451524935").get().getId())
+            .isEqualTo(book.getId());
+    }
+
+    @Test
+    public void whenBookUpdated_thenCachedQueriesSeeTheChange() {
+        assertThat(bookRepository.findSummariesByAuthor("George Orwell")).hasSize(1);
+        Book changes = new Book("Social science fiction", "Eric Blair", "image.jpg", "1984",
+            "Nineteen Eighty Four", "Debolsillo", "1948", "9788499890944", 309);
+        bookService.updateBook(book.getId(), changes, null);
+
+        assertThat(bookRepository.findSummariesByAuthor("George Orwell")).isEmpty();
+        assertThat(bookRepository.findSummariesByAuthor("Eric Blair")).hasSize(1);
+    }
+
+    @Test
+    public void whenBookUpdated_thenCatalogVersionChanges() {
+        ResourceVersion before = bookRepository.findCatalogVersion();
+        bookService.updateBook(book.getId(), book, null);
+        assertThat(bookRepository.findCatalogVersion().getETag()).isNotEqualTo(before.getETag());
+    }
+
+    @Test
+    public void whenBookReplacedByAnother_thenCatalogVersionChanges() {
+        ResourceVersion before = bookRepository.findCatalogVersion();
+        bookService.deleteBook(book.getId());
+        bookRepository.save(new Book("Dystopia", "Aldous Huxley", "image.jpg",
+            "Brave New World", "", "Harper", "1932", "0060850523", 288));
+        assertThat(bookRepository.findCatalogVersion().getETag()).isNotEqualTo(before.getETag());
+    }
+
+    @Test(expected = ResourceModifiedException.class)
+    public void whenUpdateWithStaleVersion_thenThrowException() {
+        bookService.updateBook(book.getId(), book,
+            Collections.singleton(book.getVersion() + 1));
+    }
+
+    @Test(expected = BookNotFoundException.class)
+    public void whenUpdateMissingBook_thenThrowException() {
+        bookService.updateBook(book.getId() + 1000, book, null);
+    }
+
+    @Test(expected = BookNotFoundException.class)
+    public void whenDeleteMissingBook_thenThrowException() {
+        bookService.deleteBook(book.getId() + 1000);
+    }
+}
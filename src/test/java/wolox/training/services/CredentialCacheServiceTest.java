@@ -0,0 +1,60 @@
+package wolox.training.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class CredentialCacheServiceTest {
+
+    private CredentialCacheService credentialCacheService;
+
+    @Before
+    public void setUp() {
+        credentialCacheService = new CredentialCacheService();
+        ReflectionTestUtils.setField(credentialCacheService, "meterRegistry",
+            new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(credentialCacheService, "maximumSize", 100L);
+        ReflectionTestUtils.setField(credentialCacheService, "ttlSeconds", 300L);
+        credentialCacheService.init();
+    }
+
+    @Test
+    public void whenRemembered_thenOnlyTheSamePasswordHits() {
+        credentialCacheService.remember("zurdo", "secret", 1L, credentialCacheService.ticket());
+
+        assertThat(credentialCacheService.verifiedUserId("zurdo", "secret")).contains(1L);
+        assertThat(credentialCacheService.verifiedUserId("zurdo", "other")).isEmpty();
+        assertThat(credentialCacheService.verifiedUserId("rulo", "secret")).isEmpty();
+    }
+
+    @Test
+    public void whenInvalidated_thenMiss() {
+        credentialCacheService.remember("zurdo", "secret", 1L, credentialCacheService.ticket());
+        credentialCacheService.remember("rulo", "secret", 2L, credentialCacheService.ticket());
+
+        credentialCacheService.invalidate(1L);
+
+        assertThat(credentialCacheService.verifiedUserId("zurdo", "secret")).isEmpty();
+        assertThat(credentialCacheService.verifiedUserId("rulo", "secret")).contains(2L);
+    }
+
+    @Test
+    public void givenLoginReadTheOldHash_whenRememberedAfterInvalidation_thenMiss() {
+        long ticket = credentialCacheService.ticket();
+        credentialCacheService.invalidate(1L);
+        credentialCacheService.remember("zurdo", "old", 1L, ticket);
+
+        assertThat(credentialCacheService.verifiedUserId("zurdo", "old")).isEmpty();
+    }
+
+    @Test
+    public void givenLoginAfterInvalidation_whenRemembered_thenHit() {
+        credentialCacheService.invalidate(1L);
+        credentialCacheService.remember("zurdo", "new", 1L, credentialCacheService.ticket());
+
+        assertThat(credentialCacheService.verifiedUserId("zurdo", "new")).contains(1L);
+    }
+}
@@ -0,0 +1,186 @@
+package wolox.training.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import wolox.training.clients.OpenLibraryClient;
+import wolox.training.dto.OpenLibraryBook;
+import wolox.training.exceptions.BookNotFoundException;
+import wolox.training.exceptions.OpenLibraryUnavailableException;
+import wolox.training.models.Book;
+import wolox.training.repositories.BookRepository;
+
+public class OpenLibraryServiceTest {
+
+    private static final String ISBN = "0385472579";
+    private static final Map<String, OpenLibraryBook> NOT_FOUND = Collections.emptyMap();
+
+    private OpenLibraryService openLibraryService;
+
+    private BookRepository bookRepository;
+
+    private OpenLibraryClient openLibraryClient;
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final List<Thread> threads = new CopyOnWriteArrayList<>();
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        bookRepository = mock(BookRepository.class);
+        openLibraryClient = mock(OpenLibraryClient.class);
+        PrimaryReadService primaryReadService = mock(PrimaryReadService.class);
+        given(primaryReadService.read(any()))
+            .willAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        given(bookRepository.findByIsbn(ISBN)).willReturn(Optional.empty());
+        executor = Executors.newFixedThreadPool(2, task -> {
+            Thread thread = new Thread(task);
+            threads.add(thread);
+            return thread;
+        });
+
+        openLibraryService = new OpenLibraryService();
+        ReflectionTestUtils.setField(openLibraryService, "bookRepository", bookRepository);
+        ReflectionTestUtils.setField(openLibraryService, "openLibraryClient", openLibraryClient);
+        ReflectionTestUtils.setField(openLibraryService, "meterRegistry",
+            new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(openLibraryService, "primaryReadService",
+            primaryReadService);
+        ReflectionTestUtils.setField(openLibraryService, "cacheMaximumSize", 100L);
+        ReflectionTestUtils.setField(openLibraryService, "cacheTtlMinutes", 60L);
+        ReflectionTestUtils.setField(openLibraryService, "cacheNotFoundTtlMinutes", 5L);
+        ReflectionTestUtils.setField(openLibraryService, "ticker", (Ticker) nanos::get);
+        openLibraryService.init();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void givenConcurrentImports_whenSameIsbn_thenFetchAndSaveOnce() throws Exception {
+        CountDownLatch fetching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(openLibraryClient.fetchBooks(Collections.singletonList(ISBN)))
+            .willAnswer(invocation -> {
+                fetching.countDown();
+                release.await();
+                return found();
+            });
+
+        Future<Book> leader = executor.submit(() -> openLibraryService.importBook(ISBN));
+        assertThat(fetching.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<Book> follower = executor.submit(() -> openLibraryService.importBook(ISBN));
+        awaitImportWaiting(follower);
+        release.countDown();
+
+        assertThat(follower.get(5, TimeUnit.SECONDS))
+            .isSameAs(leader.get(5, TimeUnit.SECONDS));
+        verify(openLibraryClient).fetchBooks(Collections.singletonList(ISBN));
+        verify(bookRepository).save(any(Book.class));
+    }
+
+    @Test
+    public void givenBookNotFound_whenLookedUpAgain_thenServeItUntilItExpires() {
+        given(openLibraryClient.fetchBooks(Collections.singletonList(ISBN)))
+            .willReturn(NOT_FOUND, found());
+
+        assertThatThrownBy(() -> openLibraryService.bookInfo(ISBN))
+            .isInstanceOf(BookNotFoundException.class);
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(5) - 1);
+        assertThatThrownBy(() -> openLibraryService.bookInfo(ISBN))
+            .isInstanceOf(BookNotFoundException.class);
+        verify(openLibraryClient).fetchBooks(Collections.singletonList(ISBN));
+
+        nanos.incrementAndGet();
+        assertThat(openLibraryService.bookInfo(ISBN).getIsbn()).isEqualTo(ISBN);
+        verify(openLibraryClient, times(2)).fetchBooks(Collections.singletonList(ISBN));
+    }
+
+    @Test
+    public void givenFailedImport_whenImportedAgain_thenFetchAgain() {
+        given(openLibraryClient.fetchBooks(Collections.singletonList(ISBN)))
+            .willThrow(new OpenLibraryUnavailableException())
+            .willReturn(found());
+
+        assertThatThrownBy(() -> openLibraryService.importBook(ISBN))
+            .isInstanceOf(OpenLibraryUnavailableException.class);
+        assertThat(openLibraryService.importBook(ISBN).getIsbn()).isEqualTo(ISBN);
+        verify(openLibraryClient, times(2)).fetchBooks(Collections.singletonList(ISBN));
+    }
+
+    @Test
+    public void givenFailingInFlightImport_whenJoined_thenFollowerFailsAndLaterImportWorks()
+        throws Exception {
+        CountDownLatch fetching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(openLibraryClient.fetchBooks(Collections.singletonList(ISBN)))
+            .willAnswer(invocation -> {
+                fetching.countDown();
+                release.await();
+                throw new OpenLibraryUnavailableException();
+            })
+            .willReturn(found());
+
+        Future<Book> leader = executor.submit(() -> openLibraryService.importBook(ISBN));
+        assertThat(fetching.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<Book> follower = executor.submit(() -> openLibraryService.importBook(ISBN));
+        awaitImportWaiting(follower);
+        release.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS))
+            .hasCauseInstanceOf(OpenLibraryUnavailableException.class);
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS))
+            .hasCauseInstanceOf(OpenLibraryUnavailableException.class);
+        assertThat(openLibraryService.importBook(ISBN).getIsbn()).isEqualTo(ISBN);
+    }
+
+    /**
+     * The follower runs on the second pool thread, which parks once it joins the leader.
+     */
+    private void awaitImportWaiting(Future<Book> follower) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!follower.isDone() && System.nanoTime() < deadline
+            && (threads.size() < 2 || threads.get(1).getState() != Thread.State.WAITING)) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static Map<String, OpenLibraryBook> found() {
+        OpenLibraryBook book = new OpenLibraryBook();
+        book.setIsbn(ISBN);
+        book.setTitle("Zen speaks");
+        book.setSubtitle("Shouts of nothingness");
+        book.setAuthors("Zhizhong Cai");
+        book.setPublisher("Anchor Books");
+        book.setPublishDate("1994");
+        book.setImage("image.jpg");
+        return Collections.singletonMap(ISBN, book);
+    }
+}